@@ -5,6 +5,7 @@
 CREATE TABLE IF NOT EXISTS users (
     id BIGSERIAL PRIMARY KEY,
     username VARCHAR(100) NOT NULL UNIQUE,
+    cognito_sub VARCHAR(64),
     email VARCHAR(255) NOT NULL UNIQUE,
     password_hash VARCHAR(255) NOT NULL,
     first_name VARCHAR(100),
@@ -12,13 +13,37 @@ CREATE TABLE IF NOT EXISTS users (
     phone VARCHAR(20),
     role VARCHAR(20) NOT NULL DEFAULT 'USER',
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    addresses_version BIGINT NOT NULL DEFAULT 0
 );
 
+-- Hibernate allocates ids from this sequence in blocks of 50 (User's allocationSize), which lets it
+-- batch inserts; the increment must match. Plain INSERTs using the column default stay safe.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_role ON users(role);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
+
+-- Cognito sub (JWT subject) to local id mapping, for databases created before the column existed
+ALTER TABLE users ADD COLUMN IF NOT EXISTS cognito_sub VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_cognito_sub ON users(cognito_sub);
+
+-- Row versions behind the optimistic locks and ETags, for databases created before the columns existed.
+-- version is User's @Version; addresses_version is maintained by the bump_addresses_version triggers below.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS addresses_version BIGINT NOT NULL DEFAULT 0;
+
+-- Trigram indexes for the admin substring search (LIKE '%term%'), which b-tree indexes cannot serve.
+-- The expressions must match UserRepository.searchBySubstring exactly for the planner to use them.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm ON users
+    USING gin (lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')) gin_trgm_ops);
 
 -- Create function to automatically update updated_at timestamp
 CREATE OR REPLACE FUNCTION update_updated_at_column()
@@ -29,11 +54,12 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
--- Create trigger for users table
+-- Create trigger for users table; an address change bumping addresses_version is not a profile update
 DROP TRIGGER IF EXISTS update_users_updated_at ON users;
 CREATE TRIGGER update_users_updated_at 
     BEFORE UPDATE ON users 
     FOR EACH ROW 
+    WHEN (OLD.addresses_version = NEW.addresses_version)
     EXECUTE FUNCTION update_updated_at_column();
 
 -- Create user_addresses table if it doesn't exist
@@ -50,14 +76,36 @@ CREATE TABLE IF NOT EXISTS user_addresses (
     address_type VARCHAR(50) DEFAULT 'BOTH',
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_user_addresses_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Block size of UserAddress's pooled id generator, as for users_id_seq
+ALTER SEQUENCE user_addresses_id_seq INCREMENT BY 50;
+
+-- UserAddress's @Version, for databases created before the column existed
+ALTER TABLE user_addresses ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
 -- Create indexes for user_addresses table
 CREATE INDEX IF NOT EXISTS idx_user_addresses_user_id ON user_addresses(user_id);
-CREATE INDEX IF NOT EXISTS idx_user_addresses_is_default ON user_addresses(is_default);
 CREATE INDEX IF NOT EXISTS idx_user_addresses_user_id_default ON user_addresses(user_id, is_default);
 
+-- At most one default address per user. This is the partial unique index on (user_id) WHERE is_default,
+-- declared as a deferrable exclusion constraint so it is checked at the end of each statement rather
+-- than per row: UserAddressRepository.switchDefault moves the default in a single UPDATE.
+-- Databases created earlier: drop the low-selectivity is_default index and keep each user's newest default.
+DROP INDEX IF EXISTS idx_user_addresses_is_default;
+UPDATE user_addresses a SET is_default = FALSE
+WHERE a.is_default
+AND EXISTS (SELECT 1 FROM user_addresses b WHERE b.user_id = a.user_id AND b.is_default AND b.id > a.id);
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uq_user_addresses_one_default') THEN
+        ALTER TABLE user_addresses ADD CONSTRAINT uq_user_addresses_one_default
+            EXCLUDE USING btree (user_id WITH =) WHERE (is_default) DEFERRABLE INITIALLY IMMEDIATE;
+    END IF;
+END $$;
+
 -- Create trigger for user_addresses table
 DROP TRIGGER IF EXISTS update_user_addresses_updated_at ON user_addresses;
 CREATE TRIGGER update_user_addresses_updated_at 
@@ -65,6 +113,179 @@ CREATE TRIGGER update_user_addresses_updated_at
     FOR EACH ROW 
     EXECUTE FUNCTION update_updated_at_column();
 
+-- Bump users.addresses_version once per statement that changes a user's addresses, so the address
+-- list's ETag is one primary key lookup. Statement-level: a bulk insert or a default switch over
+-- many rows updates each user row once. Transition tables allow a single event per trigger.
+CREATE OR REPLACE FUNCTION bump_addresses_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE users SET addresses_version = addresses_version + 1
+        WHERE id IN (SELECT user_id FROM new_rows);
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE users SET addresses_version = addresses_version + 1
+        WHERE id IN (SELECT user_id FROM old_rows);
+    ELSE
+        UPDATE users SET addresses_version = addresses_version + 1
+        WHERE id IN (SELECT user_id FROM new_rows UNION SELECT user_id FROM old_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS bump_addresses_version_insert ON user_addresses;
+CREATE TRIGGER bump_addresses_version_insert
+    AFTER INSERT ON user_addresses
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_addresses_version();
+
+DROP TRIGGER IF EXISTS bump_addresses_version_update ON user_addresses;
+CREATE TRIGGER bump_addresses_version_update
+    AFTER UPDATE ON user_addresses
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_addresses_version();
+
+DROP TRIGGER IF EXISTS bump_addresses_version_delete ON user_addresses;
+CREATE TRIGGER bump_addresses_version_delete
+    AFTER DELETE ON user_addresses
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_addresses_version();
+
+-- Create pending_registrations table (sign-ups awaiting Cognito confirmation)
+CREATE TABLE IF NOT EXISTS pending_registrations (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    username VARCHAR(100) NOT NULL UNIQUE,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_pending_registrations_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Index for the confirmation retry sweep
+CREATE INDEX IF NOT EXISTS idx_pending_registrations_due ON pending_registrations(status, next_attempt_at);
+
+-- Create trigger for pending_registrations table
+DROP TRIGGER IF EXISTS update_pending_registrations_updated_at ON pending_registrations;
+CREATE TRIGGER update_pending_registrations_updated_at 
+    BEFORE UPDATE ON pending_registrations 
+    FOR EACH ROW 
+    EXECUTE FUNCTION update_updated_at_column();
+
+-- Admin bulk imports: one row per job, plus the uploaded rows staged with COPY.
+-- A row stays PENDING until its Cognito user exists, which is what lets a failed job resume.
+CREATE TABLE IF NOT EXISTS user_import_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    created_by VARCHAR(100),
+    total_rows BIGINT NOT NULL DEFAULT 0,
+    loaded_rows BIGINT NOT NULL DEFAULT 0,
+    provisioned_rows BIGINT NOT NULL DEFAULT 0,
+    failed_rows BIGINT NOT NULL DEFAULT 0,
+    run_token VARCHAR(36),
+    last_error VARCHAR(500),
+    staged_at TIMESTAMP,
+    loaded_at TIMESTAMP,
+    provisioning_started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+DROP TRIGGER IF EXISTS update_user_import_jobs_updated_at ON user_import_jobs;
+CREATE TRIGGER update_user_import_jobs_updated_at
+    BEFORE UPDATE ON user_import_jobs
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
+
+-- Values are kept as uploaded (TEXT), so rows rejected by validation can be reported verbatim
+CREATE TABLE IF NOT EXISTS user_import_rows (
+    job_id BIGINT NOT NULL,
+    line_no BIGINT NOT NULL,
+    username TEXT,
+    email TEXT,
+    first_name TEXT,
+    last_name TEXT,
+    phone TEXT,
+    role TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, PROVISIONED, FAILED
+    error VARCHAR(500),
+    user_id BIGINT,
+    PRIMARY KEY (job_id, line_no),
+    CONSTRAINT fk_user_import_rows_job FOREIGN KEY (job_id) REFERENCES user_import_jobs(id) ON DELETE CASCADE
+);
+
+-- Provisioning pages through the rows still to do
+CREATE INDEX IF NOT EXISTS idx_user_import_rows_pending ON user_import_rows(job_id, line_no) WHERE status = 'PENDING';
+
+-- Running user/address counts for the admin statistics endpoint, kept by triggers so every
+-- write path (including cascades and bulk loads) updates them in its own transaction.
+-- Each counter is split over 8 slots chosen by backend pid, so concurrent writers rarely
+-- contend on one row; readers sum the slots. UserStatisticsService reconciles them periodically.
+CREATE TABLE IF NOT EXISTS user_statistics (
+    name VARCHAR(64) NOT NULL,
+    slot SMALLINT NOT NULL,
+    value BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (name, slot)
+);
+
+CREATE OR REPLACE FUNCTION add_user_statistic(stat_name VARCHAR, delta BIGINT)
+RETURNS void AS $$
+BEGIN
+    INSERT INTO user_statistics (name, slot, value)
+    VALUES (stat_name, pg_backend_pid() % 8, delta)
+    ON CONFLICT (name, slot) DO UPDATE SET value = user_statistics.value + EXCLUDED.value;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION count_users()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM add_user_statistic('users', 1);
+        PERFORM add_user_statistic('users.role.' || NEW.role, 1);
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM add_user_statistic('users', -1);
+        PERFORM add_user_statistic('users.role.' || OLD.role, -1);
+    ELSIF NEW.role IS DISTINCT FROM OLD.role THEN
+        PERFORM add_user_statistic('users.role.' || OLD.role, -1);
+        PERFORM add_user_statistic('users.role.' || NEW.role, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION count_user_addresses()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM add_user_statistic('addresses', 1);
+    ELSE
+        PERFORM add_user_statistic('addresses', -1);
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS count_users ON users;
+CREATE TRIGGER count_users
+    AFTER INSERT OR DELETE OR UPDATE OF role ON users
+    FOR EACH ROW
+    EXECUTE FUNCTION count_users();
+
+DROP TRIGGER IF EXISTS count_user_addresses ON user_addresses;
+CREATE TRIGGER count_user_addresses
+    AFTER INSERT OR DELETE ON user_addresses
+    FOR EACH ROW
+    EXECUTE FUNCTION count_user_addresses();
+
 -- Insert sample data (optional - for testing)
 INSERT INTO users (username, email, password_hash, first_name, last_name, phone, role)
 VALUES 
@@ -2,12 +2,14 @@ package com.authservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Application Class for Auth User Service
  * A microservice for authentication and user management using AWS Cognito
  */
 @SpringBootApplication
+@EnableScheduling
 public class AuthUserServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,250 @@
+package com.authservice.cache;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Compressed prefix tree mapping string keys to one or more values.
+ *
+ * Chains of single-child nodes are collapsed into one edge label, and each
+ * node keeps its children in parallel arrays sorted by first character, so a
+ * million short keys cost a few tens of bytes per key. Prefix lookups visit
+ * values in key order and stop as soon as the visitor has enough.
+ *
+ * Not thread-safe; callers guard it with a read/write lock.
+ */
+final class RadixTrie<V> {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final Node root = new Node("");
+    private int size;
+
+    /**
+     * Associate a value with the key; adding an equal value twice is a no-op
+     */
+    void add(String key, V value) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                leaf.values = new Object[]{value};
+                node.insertChild(-index - 1, leaf);
+                size++;
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key diverges from it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.firsts = new char[]{child.label.charAt(0)};
+                middle.children = new Node[]{child};
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        for (Object existing : node.values) {
+            if (existing.equals(value)) {
+                return;
+            }
+        }
+        node.values = Arrays.copyOf(node.values, node.values.length + 1);
+        node.values[node.values.length - 1] = value;
+        size++;
+    }
+
+    /**
+     * Remove one value from the key, pruning and re-merging nodes left without values
+     */
+    void remove(String key, V value) {
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (!key.startsWith(child.label, i)) {
+                return;
+            }
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+
+        int position = -1;
+        for (int v = 0; v < node.values.length; v++) {
+            if (node.values[v].equals(value)) {
+                position = v;
+                break;
+            }
+        }
+        if (position < 0) {
+            return;
+        }
+        Object[] values = new Object[node.values.length - 1];
+        System.arraycopy(node.values, 0, values, 0, position);
+        System.arraycopy(node.values, position + 1, values, position, values.length - position);
+        node.values = values.length == 0 ? NO_VALUES : values;
+        size--;
+
+        if (node == root || node.values.length > 0) {
+            return;
+        }
+        if (node.children.length == 0) {
+            parent.removeChild(parent.indexOf(node.label.charAt(0)));
+            if (parent != root && parent.values.length == 0 && parent.children.length == 1) {
+                parent.mergeWithOnlyChild();
+            }
+        } else if (node.children.length == 1) {
+            node.mergeWithOnlyChild();
+        }
+    }
+
+    /**
+     * Visit the values of every key starting with the prefix, in key order, until the visitor returns false
+     */
+    @SuppressWarnings("unchecked")
+    void visitPrefix(String prefix, Predicate<? super V> visitor) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(i));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            int remaining = prefix.length() - i;
+            if (child.label.length() >= remaining) {
+                // The prefix ends inside (or at the end of) this edge
+                if (!child.label.startsWith(prefix.substring(i))) {
+                    return;
+                }
+            } else if (!prefix.startsWith(child.label, i)) {
+                return;
+            }
+            node = child;
+            i += child.label.length();
+        }
+        visit(node, (Predicate<Object>) visitor);
+    }
+
+    private static boolean visit(Node node, Predicate<Object> visitor) {
+        for (Object value : node.values) {
+            if (!visitor.test(value)) {
+                return false;
+            }
+        }
+        for (Node child : node.children) {
+            if (!visit(child, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Number of key/value associations */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Approximate retained heap of the tree structure, assuming compressed oops
+     * and Latin-1 labels; the values themselves are not counted
+     */
+    long estimateBytes() {
+        return estimateBytes(root);
+    }
+
+    private static long estimateBytes(Node node) {
+        // Node: header + 4 references; label: String + byte[]
+        long bytes = 32 + 24 + align(16 + node.label.length());
+        if (node.children.length > 0) {
+            bytes += align(16 + 2L * node.firsts.length) + align(16 + 4L * node.children.length);
+        }
+        if (node.values.length > 0) {
+            bytes += align(16 + 4L * node.values.length);
+        }
+        for (Node child : node.children) {
+            bytes += estimateBytes(child);
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        String label;
+        char[] firsts = NO_CHARS;
+        Node[] children = NO_NODES;
+        Object[] values = NO_VALUES;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        /** Index of the child starting with c, or (-insertionPoint - 1) */
+        int indexOf(char c) {
+            return Arrays.binarySearch(firsts, c);
+        }
+
+        void insertChild(int at, Node child) {
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newFirsts[at] = child.label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(firsts, at, newFirsts, at + 1, firsts.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        void removeChild(int at) {
+            if (children.length == 1) {
+                firsts = NO_CHARS;
+                children = NO_NODES;
+                return;
+            }
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(firsts, at + 1, newFirsts, at, newFirsts.length - at);
+            System.arraycopy(children, at + 1, newChildren, at, newChildren.length - at);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        /** Absorb the single child so no value-less node has exactly one child */
+        void mergeWithOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            firsts = child.firsts;
+            children = child.children;
+            values = child.values;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.authservice.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Receives user cache invalidations from other replicas via Postgres LISTEN.
+ *
+ * Uses its own connection outside the Hikari pool, since a listening
+ * connection is held for the lifetime of the process. After a reconnect the
+ * whole cache is dropped, because notifications sent while disconnected are
+ * lost.
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidationListener.class);
+
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30000;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${cache.user-profile.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.user-profile.invalidation.poll-timeout:5000}")
+    private int pollTimeoutMillis;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        String channel = userProfileCache.getChannel();
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid notification channel name: " + channel);
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("user-cache-listener")
+                .daemon(true)
+                .start(() -> listen(channel));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen(String channel) {
+        long reconnectDelayMillis = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                userProfileCache.evictAll();
+                reconnectDelayMillis = 1000;
+                logger.info("Listening for user cache invalidations on channel {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            userProfileCache.onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("User cache invalidation listener disconnected, retrying in {}ms",
+                        reconnectDelayMillis, e);
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                reconnectDelayMillis = Math.min(MAX_RECONNECT_DELAY_MILLIS, reconnectDelayMillis * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.authservice.cache;
+
+import com.authservice.dto.UserDTO;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through, size-bounded cache of user profiles keyed by username and by id.
+ *
+ * Writers call invalidate() inside their transaction: the entries are evicted
+ * locally right away and again after completion (so a concurrent reader cannot
+ * re-cache the pre-commit row), and a pg_notify is issued on the same
+ * connection. Postgres delivers it to every replica's
+ * UserCacheInvalidationListener only if the transaction commits.
+ *
+ * Cached DTOs are shared between callers and must not be modified.
+ */
+@Component
+public class UserProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCache.class);
+
+    /** Identifies this replica so it can skip its own notifications */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${cache.user-profile.max-size:10000}")
+    private long maxSize;
+
+    @Value("${cache.user-profile.expire-after-write:600000}")
+    private long expireAfterWriteMillis;
+
+    @Value("${cache.user-profile.invalidation.enabled:true}")
+    private boolean notifyEnabled;
+
+    @Value("${cache.user-profile.invalidation.channel:user_profile_invalidation}")
+    private String channel;
+
+    private Cache<String, UserDTO> byUsername;
+    private Cache<Long, UserDTO> byId;
+
+    @PostConstruct
+    public void init() {
+        // The TTL only bounds staleness if a notification is ever lost
+        byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+                .recordStats()
+                .build();
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+                .recordStats()
+                .build();
+        metricsService.monitorCache(byUsername, "userProfileByUsername");
+        metricsService.monitorCache(byId, "userProfileById");
+    }
+
+    /**
+     * Each cache only ever loads its own key: filling the other one from a loader could put a
+     * row read before a commit back after that commit's eviction of the other key had run
+     */
+    public Optional<UserDTO> findByUsername(String username) {
+        return Optional.ofNullable(byUsername.get(username,
+                key -> userRepository.findProfileByUsername(key).orElse(null)));
+    }
+
+    public Optional<UserDTO> findById(Long id) {
+        return Optional.ofNullable(byId.get(id, key -> userRepository.findProfileById(key).orElse(null)));
+    }
+
+    /**
+     * Evict a user on this node and, once the current transaction commits, on every other node.
+     * Pass every username the user had (e.g. before and after a rename).
+     */
+    public void invalidate(Long id, String... usernames) {
+        evictLocal(id, usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocal(id, usernames);
+                }
+            });
+        }
+        metricsService.recordUserCacheInvalidation("local");
+        publish(new InvalidationMessage(nodeId, id, Arrays.asList(usernames), false));
+    }
+
+    /**
+     * Evict many users (admin batch changes). Other nodes get a single notification and drop
+     * their whole cache, since one pg_notify payload cannot list a large batch.
+     */
+    public void invalidateMany(Collection<Long> ids, Collection<String> usernames) {
+        if (ids.isEmpty() && usernames.isEmpty()) {
+            return;
+        }
+        evictLocal(ids, usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocal(ids, usernames);
+                }
+            });
+        }
+        metricsService.recordUserCacheInvalidation("local");
+        publish(new InvalidationMessage(nodeId, null, List.of(), true));
+    }
+
+    /**
+     * Apply an invalidation received from another replica
+     */
+    void onNotification(String payload) {
+        try {
+            InvalidationMessage message = objectMapper.readValue(payload, InvalidationMessage.class);
+            if (nodeId.equals(message.node())) {
+                return;
+            }
+            if (message.all()) {
+                evictAll();
+            } else {
+                evictLocal(message.id(), message.usernames().toArray(String[]::new));
+            }
+            metricsService.recordUserCacheInvalidation("remote");
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed user cache invalidation: {}", payload, e);
+        }
+    }
+
+    /**
+     * Drop everything, e.g. after notifications may have been missed
+     */
+    void evictAll() {
+        byUsername.invalidateAll();
+        byId.invalidateAll();
+    }
+
+    String getChannel() {
+        return channel;
+    }
+
+    private void evictLocal(Long id, String... usernames) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        for (String username : usernames) {
+            if (username != null) {
+                byUsername.invalidate(username);
+            }
+        }
+    }
+
+    private void evictLocal(Collection<Long> ids, Collection<String> usernames) {
+        byId.invalidateAll(ids);
+        byUsername.invalidateAll(usernames);
+    }
+
+    private void publish(InvalidationMessage message) {
+        if (!notifyEnabled) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            // Runs on the transaction's connection, so Postgres only delivers it on commit
+            jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) ps -> {
+                ps.setString(1, channel);
+                ps.setString(2, payload);
+                return ps.execute();
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cache invalidation", e);
+        }
+    }
+
+    /** all: drop every entry, for batch changes too large to list */
+    record InvalidationMessage(String node, Long id, List<String> usernames, boolean all) {
+        InvalidationMessage {
+            usernames = usernames == null ? List.of() : usernames.stream().filter(Objects::nonNull).toList();
+        }
+    }
+}
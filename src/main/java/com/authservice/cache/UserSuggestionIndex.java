@@ -0,0 +1,228 @@
+package com.authservice.cache;
+
+import com.authservice.dto.UserSuggestion;
+import com.authservice.exception.ServiceUnavailableException;
+import com.authservice.model.User;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead over usernames and emails for the admin UI.
+ *
+ * Both fields are lowercased into one RadixTrie, so a lookup costs the prefix
+ * length plus the number of matches returned, independent of the user count.
+ * Local writes are applied after their transaction commits; writes on other
+ * replicas show up at the next full rebuild (admin.users.suggest.rebuild-interval).
+ * Until the first build finishes, suggest() fails with 503.
+ */
+@Component
+public class UserSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSuggestionIndex.class);
+
+    /** HashMap entry + Long key + table slot, with compressed oops */
+    private static final long ID_ENTRY_BYTES = 56;
+
+    /** Record header/fields + two Strings with their byte arrays (before contents) */
+    private static final long SUGGESTION_BYTES = 24 + 2 * (24 + 16);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${admin.users.suggest.max-results:10}")
+    private int maxResults;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private RadixTrie<UserSuggestion> trie = new RadixTrie<>();
+    private Map<Long, UserSuggestion> byId = new HashMap<>();
+    /** Changes made while a rebuild is reading the table; replayed onto the new index */
+    private List<Change> changesDuringRebuild;
+
+    private volatile boolean ready;
+    private volatile long estimatedBytes;
+
+    @PostConstruct
+    public void registerGauges() {
+        metricsService.registerGauge("admin.suggest.users", "Users in the suggestion index", this::size);
+        metricsService.registerGauge("admin.suggest.memory.bytes",
+                "Estimated heap used by the suggestion index, as of the last rebuild", () -> estimatedBytes);
+    }
+
+    /**
+     * Up to limit users whose username or email starts with the prefix (case-insensitive), in key order
+     */
+    public List<UserSuggestion> suggest(String prefix, Integer limit) {
+        if (!ready) {
+            throw new ServiceUnavailableException("User suggestions are still loading");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int k = limit == null ? maxResults : Math.max(1, Math.min(limit, maxResults));
+        String key = prefix.trim().toLowerCase(Locale.ROOT);
+
+        // A user can match on both username and email, so collect distinct users
+        Set<UserSuggestion> matches = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            trie.visitPrefix(key, suggestion -> {
+                matches.add(suggestion);
+                return matches.size() < k;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return List.copyOf(matches);
+    }
+
+    /**
+     * Add or replace a user once the current transaction commits
+     */
+    public void put(User user) {
+        UserSuggestion suggestion = new UserSuggestion(user.getId(), user.getUsername(), user.getEmail());
+        afterCommit(new Change(user.getId(), suggestion));
+    }
+
+    /**
+     * Remove a user once the current transaction commits
+     */
+    public void remove(Long userId) {
+        afterCommit(new Change(userId, null));
+    }
+
+    /**
+     * Reload the whole index from the database; picks up writes made on other replicas.
+     * The first run builds the index at startup.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${admin.users.suggest.rebuild-interval:600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RadixTrie<UserSuggestion> newTrie = new RadixTrie<>();
+        Map<Long, UserSuggestion> newById = new HashMap<>();
+        try (Stream<UserSuggestion> users = userRepository.streamAllSuggestions()) {
+            users.forEach(suggestion -> apply(new Change(suggestion.id(), suggestion), newTrie, newById));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        long bytes = estimateBytes(newTrie, newById);
+
+        lock.writeLock().lock();
+        try {
+            for (Change change : changesDuringRebuild) {
+                apply(change, newTrie, newById);
+            }
+            changesDuringRebuild = null;
+            trie = newTrie;
+            byId = newById;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        estimatedBytes = bytes;
+        ready = true;
+        logger.info("Rebuilt user suggestion index: {} users, ~{} KiB, in {}ms",
+                newById.size(), bytes / 1024, System.currentTimeMillis() - started);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyNow(change);
+                }
+            });
+        } else {
+            applyNow(change);
+        }
+    }
+
+    private void applyNow(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(change, trie, byId);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Change change, RadixTrie<UserSuggestion> trie, Map<Long, UserSuggestion> byId) {
+        UserSuggestion previous = change.suggestion() == null
+                ? byId.remove(change.userId())
+                : byId.put(change.userId(), change.suggestion());
+        if (previous != null) {
+            trie.remove(key(previous.username()), previous);
+            trie.remove(key(previous.email()), previous);
+        }
+        if (change.suggestion() != null) {
+            trie.add(key(change.suggestion().username()), change.suggestion());
+            trie.add(key(change.suggestion().email()), change.suggestion());
+        }
+    }
+
+    private static long estimateBytes(RadixTrie<UserSuggestion> trie, Map<Long, UserSuggestion> byId) {
+        long bytes = trie.estimateBytes();
+        for (UserSuggestion suggestion : byId.values()) {
+            bytes += ID_ENTRY_BYTES + SUGGESTION_BYTES + suggestion.username().length() + suggestion.email().length();
+        }
+        return bytes;
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /** A pending upsert, or a removal when suggestion is null */
+    private record Change(Long userId, UserSuggestion suggestion) {
+    }
+}
@@ -1,15 +1,29 @@
 package com.authservice.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * AWS Cognito Configuration
- * Configures AWS Cognito client and related properties
+ * Configures the non-blocking AWS Cognito client and related properties.
+ * The pooled HTTP client keeps connections (and the TLS sessions negotiated
+ * on them) alive and reuses them across requests.
  */
 @Configuration
 public class AwsCognitoConfig {
@@ -29,11 +43,81 @@ public class AwsCognitoConfig {
     @Value("${aws.cognito.jwk-set-uri}")
     private String jwkSetUri;
 
+    @Value("${aws.cognito.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${aws.cognito.http.max-pending-acquires:10000}")
+    private int maxPendingAcquires;
+
+    @Value("${aws.cognito.http.connection-timeout:2000}")
+    private long connectionTimeoutMillis;
+
+    @Value("${aws.cognito.http.connection-acquisition-timeout:5000}")
+    private long connectionAcquisitionTimeoutMillis;
+
+    @Value("${aws.cognito.http.connection-max-idle-time:60000}")
+    private long connectionMaxIdleTimeMillis;
+
+    @Value("${aws.cognito.http.connection-time-to-live:300000}")
+    private long connectionTimeToLiveMillis;
+
+    @Value("${aws.cognito.http.tls-negotiation-timeout:3000}")
+    private long tlsNegotiationTimeoutMillis;
+
+    @Value("${aws.cognito.http.tcp-keep-alive:true}")
+    private boolean tcpKeepAlive;
+
+    @Value("${aws.cognito.http.api-call-timeout:10000}")
+    private long apiCallTimeoutMillis;
+
+    /**
+     * Non-blocking Cognito client backed by a pooled Netty HTTP client.
+     * Response futures complete on the cognitoCompletionExecutor rather than
+     * on Netty event-loop threads, so continuations may safely block (e.g. JPA).
+     * Replaced by EmulatedCognitoClient under the cognito-emulator profile.
+     */
     @Bean
-    public CognitoIdentityProviderClient cognitoIdentityProviderClient() {
-        return CognitoIdentityProviderClient.builder()
+    @Profile("!cognito-emulator")
+    public CognitoIdentityProviderAsyncClient cognitoIdentityProviderAsyncClient(
+            @Qualifier("cognitoCompletionExecutor") Executor cognitoCompletionExecutor) {
+        return CognitoIdentityProviderAsyncClient.builder()
                 .region(Region.of(region))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .maxPendingConnectionAcquires(maxPendingAcquires)
+                        .connectionTimeout(Duration.ofMillis(connectionTimeoutMillis))
+                        .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMillis))
+                        .connectionMaxIdleTime(Duration.ofMillis(connectionMaxIdleTimeMillis))
+                        .connectionTimeToLive(Duration.ofMillis(connectionTimeToLiveMillis))
+                        .tlsNegotiationTimeout(Duration.ofMillis(tlsNegotiationTimeoutMillis))
+                        .tcpKeepAlive(tcpKeepAlive)
+                        .useIdleConnectionReaper(true))
+                .asyncConfiguration(ClientAsyncConfiguration.builder()
+                        .advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR,
+                                cognitoCompletionExecutor)
+                        .build())
+                .overrideConfiguration(clientOverrideConfiguration())
+                .build();
+    }
+
+    /**
+     * Executor on which async Cognito responses are delivered.
+     * Virtual threads keep blocking continuations cheap without sizing a pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService cognitoCompletionExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("cognito-async-", 0).factory());
+    }
+
+    /**
+     * SDK retries are disabled; CognitoResilience retries throttling under a global budget
+     */
+    private ClientOverrideConfiguration clientOverrideConfiguration() {
+        return ClientOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofMillis(apiCallTimeoutMillis))
+                .retryPolicy(RetryPolicy.none())
                 .build();
     }
 
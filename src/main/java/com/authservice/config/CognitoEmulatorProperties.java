@@ -0,0 +1,64 @@
+package com.authservice.config;
+
+import com.authservice.resilience.CognitoApiCategory;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Behaviour of the in-process Cognito emulator (aws.cognito.emulator.*).
+ * Only bound when the cognito-emulator profile is active.
+ */
+@Component
+@Profile("cognito-emulator")
+@ConfigurationProperties(prefix = "aws.cognito.emulator")
+@Data
+public class CognitoEmulatorProperties {
+
+    /** Code accepted by ConfirmForgotPassword for every user */
+    private String recoveryCode = "123456";
+
+    private long tokenValiditySeconds = 3600;
+
+    /** Lifetime of refresh tokens; a refresh with an older one is rejected like an expired token */
+    private long refreshTokenValiditySeconds = 30L * 24 * 3600;
+
+    /** Refresh tokens kept in memory; beyond it some are evicted and fail to refresh (load tests log in a lot) */
+    private long maxRefreshGrants = 100_000;
+
+    /** cognito:groups claim per username, e.g. to grant ADMIN to load-test accounts */
+    private Map<String, List<String>> userGroups = new HashMap<>();
+
+    /** Latency applied to every operation without an override */
+    private Latency latency = new Latency();
+
+    /** Per-operation latency overrides, keyed by Cognito operation name (e.g. InitiateAuth) */
+    private Map<String, Latency> operationLatency = new HashMap<>();
+
+    /** Fraction of calls per operation that fail with InternalErrorException */
+    private Map<String, Double> errorRates = new HashMap<>();
+
+    /** Request-rate quota per category; calls above it fail with TooManyRequestsException */
+    private Map<CognitoApiCategory, Integer> requestsPerSecond = new EnumMap<>(CognitoApiCategory.class);
+
+    public enum Distribution { FIXED, UNIFORM, LOG_NORMAL }
+
+    @Data
+    public static class Latency {
+        private Distribution distribution = Distribution.FIXED;
+        /** Fixed value, or the median of the log-normal distribution */
+        private double medianMillis = 0;
+        /** Spread of the log-normal distribution */
+        private double sigma = 0.5;
+        /** Lower bound of the uniform distribution */
+        private long minMillis = 0;
+        /** Upper bound of the uniform distribution, and cap for the log-normal tail */
+        private long maxMillis = 5000;
+    }
+}
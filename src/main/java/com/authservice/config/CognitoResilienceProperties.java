@@ -0,0 +1,48 @@
+package com.authservice.config;
+
+import com.authservice.resilience.CognitoApiCategory;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resilience settings for calls to Cognito (aws.cognito.resilience.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "aws.cognito.resilience")
+@Data
+public class CognitoResilienceProperties {
+
+    /** Maximum concurrent in-flight calls per quota category */
+    private Map<CognitoApiCategory, Integer> bulkheads = new EnumMap<>(CognitoApiCategory.class);
+
+    private int defaultBulkhead = 50;
+
+    private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+
+    private RetrySettings retry = new RetrySettings();
+
+    @Data
+    public static class CircuitBreakerSettings {
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private long openDurationMillis = 10000;
+        private int halfOpenPermits = 5;
+    }
+
+    @Data
+    public static class RetrySettings {
+        /** Total attempts including the first one */
+        private int maxAttempts = 3;
+        private long baseDelayMillis = 50;
+        private long maxDelayMillis = 1000;
+        /** Retries allowed per first attempt, across the whole service */
+        private double budgetRatio = 0.1;
+        private double budgetMaxTokens = 100;
+        private double budgetMinRetriesPerSecond = 1;
+    }
+}
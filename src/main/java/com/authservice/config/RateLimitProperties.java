@@ -0,0 +1,52 @@
+package com.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Budgets for the auth endpoint rate limiter (security.rate-limit.*).
+ * Each endpoint can limit per username and per client IP independently.
+ */
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Number of independently locked shards */
+    private int stripes = 64;
+
+    private Map<String, EndpointBudget> endpoints = new HashMap<>();
+
+    private Lockout lockout = new Lockout();
+
+    @Data
+    public static class EndpointBudget {
+        private Bucket perUser;
+        private Bucket perIp;
+    }
+
+    @Data
+    public static class Bucket {
+        /** Burst size */
+        private int capacity;
+        /** Sustained rate */
+        private int refillPerMinute;
+    }
+
+    @Data
+    public static class Lockout {
+        /** Consecutive invalid-credential failures before the first lockout */
+        private int threshold = 5;
+        /** First lockout duration; doubled for every further failure */
+        private long baseMillis = 1000;
+        private long maxMillis = 900000;
+        /** Failure streaks older than this are forgotten */
+        private long resetAfterMillis = 3600000;
+    }
+}
@@ -1,6 +1,19 @@
 package com.authservice.config;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import com.authservice.observability.MetricsService;
+import com.authservice.security.CachingJwtDecoder;
+import com.authservice.security.CognitoJwtAuthenticationConverter;
+import com.authservice.security.JwkSetCache;
+import com.authservice.security.RevocationCheckingJwtDecoder;
+import com.authservice.security.TokenRevocationList;
+import com.authservice.security.UserPrincipalResolver;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -15,8 +28,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -33,11 +46,24 @@ import java.util.stream.Collectors;
 @EnableWebSecurity
 public class SecurityConfig {
 
-    @Autowired
-    private AwsCognitoConfig cognitoConfig;
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
+    @Value("${security.jwt-cache.max-size:10000}")
+    private long jwtCacheMaxSize;
+
+    @Value("${security.password-hashing.target-millis:100}")
+    private long bcryptTargetMillis;
+
+    @Value("${security.password-hashing.min-cost:10}")
+    private int bcryptMinCost;
+
+    @Value("${security.password-hashing.max-cost:14}")
+    private int bcryptMaxCost;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder,
+                                           CognitoJwtAuthenticationConverter jwtAuthenticationConverter)
+            throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -47,30 +73,48 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/users/public/**").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/emulator/cognito/**").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                .decoder(jwtDecoder())
-                                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                                .decoder(jwtDecoder)
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter)
                         )
                 );
 
         return http.build();
     }
 
+    /**
+     * Validate Cognito JWTs against the pre-warmed JWK set cache, skipping
+     * signature verification for tokens that were already verified, and
+     * rejecting tokens revoked locally
+     */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        // Use Cognito's JWK Set URI for JWT validation
-        return NimbusJwtDecoder.withJwkSetUri(cognitoConfig.getJwkSetUri()).build();
+    public JwtDecoder jwtDecoder(JwkSetCache jwkSetCache, TokenRevocationList revocationList,
+                                 MetricsService metricsService) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSetCache));
+        // Claims are validated by Spring's JwtValidators below
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder nimbusDecoder = new NimbusJwtDecoder(jwtProcessor);
+        nimbusDecoder.setJwtValidator(JwtValidators.createDefault());
+
+        CachingJwtDecoder cachingDecoder = new CachingJwtDecoder(nimbusDecoder, jwtCacheMaxSize);
+        metricsService.monitorCache(cachingDecoder.getCache(), "verifiedJwt");
+        return new RevocationCheckingJwtDecoder(cachingDecoder, revocationList);
     }
 
+    /**
+     * Authentication carrying the caller's local user id, resolved once per request
+     */
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new CognitoJwtGrantedAuthoritiesConverter());
-        return converter;
+    public CognitoJwtAuthenticationConverter jwtAuthenticationConverter(UserPrincipalResolver principalResolver) {
+        return new CognitoJwtAuthenticationConverter(principalResolver, new CognitoJwtGrantedAuthoritiesConverter());
     }
 
     @Bean
@@ -93,7 +137,36 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(calibrateBCryptCost());
+    }
+
+    /**
+     * Pick the highest BCrypt cost whose hash time stays within the configured
+     * latency target on this hardware, never going below the minimum cost.
+     * Existing hashes keep verifying because the cost is encoded in each hash.
+     */
+    private int calibrateBCryptCost() {
+        // Warm up the JIT so the first measurement is not inflated
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        int chosenCost = bcryptMinCost;
+        for (int cost = bcryptMinCost; cost <= bcryptMaxCost; cost++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(cost).encode("calibration");
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            if (elapsedMillis > bcryptTargetMillis) {
+                break;
+            }
+            chosenCost = cost;
+            // Each cost step doubles the work; stop before overshooting the target
+            if (elapsedMillis * 2 > bcryptTargetMillis) {
+                break;
+            }
+        }
+
+        logger.info("BCrypt cost calibrated to {} (target {}ms)", chosenCost, bcryptTargetMillis);
+        return chosenCost;
     }
 
     /**
@@ -0,0 +1,41 @@
+package com.authservice.config;
+
+import com.authservice.security.AuthenticatedUserArgumentResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ThreadPoolTaskExecutorBuilder taskExecutorBuilder;
+
+    /**
+     * Runs Callable and StreamingResponseBody handlers. The cognitoCompletionExecutor bean
+     * stops Boot from creating its applicationTaskExecutor, so without this MVC would fall
+     * back to an unbounded SimpleAsyncTaskExecutor; sized by spring.task.execution.pool.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        return taskExecutorBuilder.threadNamePrefix("mvc-async-").build();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.registerCallableInterceptors(new AsyncTimeoutOverrideInterceptor());
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new AuthenticatedUserArgumentResolver());
+    }
+}
@@ -1,19 +1,45 @@
 package com.authservice.controller;
 
+import com.authservice.cache.UserSuggestionIndex;
+import com.authservice.config.AsyncTimeoutOverrideInterceptor;
 import com.authservice.dto.AddressDTO;
+import com.authservice.dto.AdminFullUserProfile;
 import com.authservice.dto.AdminUserDTO;
 import com.authservice.dto.AdminUserUpdateRequest;
+import com.authservice.dto.BatchDeleteRequest;
+import com.authservice.dto.BatchResult;
+import com.authservice.dto.BatchRoleChangeRequest;
+import com.authservice.dto.BatchUserUpdateRequest;
+import com.authservice.dto.BulkCreateAddressRequest;
+import com.authservice.dto.CursorPage;
+import com.authservice.dto.UserImportJobDTO;
+import com.authservice.dto.UserSuggestion;
+import com.authservice.repository.UserImportRowRepository;
+import com.authservice.security.AuthenticatedUser;
 import com.authservice.service.UserAddressService;
+import com.authservice.service.UserBatchService;
+import com.authservice.service.UserExportService;
+import com.authservice.service.UserImportService;
 import com.authservice.service.UserManagementService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Admin User Management Controller
@@ -30,6 +56,21 @@ public class AdminUserController {
     @Autowired
     private UserAddressService addressService;
 
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserBatchService userBatchService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserSuggestionIndex userSuggestionIndex;
+
+    @Value("${admin.export.timeout:3600000}")
+    private long exportTimeoutMillis;
+
     /**
      * Get all users (with optional search)
      */
@@ -40,6 +81,142 @@ public class AdminUserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Get one page of users using keyset pagination
+     * sort: createdAt (default), -createdAt, username or -username
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<AdminUserDTO>> getUsersPage(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<AdminUserDTO> page = userManagementService.getUsersPage(sort, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Typeahead: users whose username or email starts with the prefix, served from memory
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<UserSuggestion>> suggestUsers(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userSuggestionIndex.suggest(prefix, limit));
+    }
+
+    /**
+     * Stream all users as NDJSON (default) or CSV, optionally with addresses and gzip-compressed
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean includeAddresses,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        UserExportService.Format exportFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> UserExportService.Format.NDJSON;
+            case "csv" -> UserExportService.Format.CSV;
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        };
+        // The default async request timeout is far too short for a full export
+        request.setAttribute(AsyncTimeoutOverrideInterceptor.TIMEOUT_ATTRIBUTE, exportTimeoutMillis);
+
+        String filename = exportFormat == UserExportService.Format.CSV ? "users.csv" : "users.ndjson";
+        MediaType contentType = exportFormat == UserExportService.Format.CSV
+                ? new MediaType("text", "csv")
+                : new MediaType("application", "x-ndjson");
+        if (gzip) {
+            filename += ".gz";
+            contentType = new MediaType("application", "gzip");
+        }
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                userExportService.export(compressed, exportFormat, includeAddresses);
+                compressed.finish();
+            } else {
+                userExportService.export(out, exportFormat, includeAddresses);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Set the role of many users, in chunked transactions; returns a result per user
+     */
+    @PostMapping("/batch/role")
+    public ResponseEntity<BatchResult> changeRoles(@Valid @RequestBody BatchRoleChangeRequest request) {
+        return ResponseEntity.ok(userBatchService.changeRoles(request.getUserIds(), request.getRole()));
+    }
+
+    /**
+     * Apply per-user field updates (same fields and validation as PUT /{userId}, except password)
+     */
+    @PostMapping("/batch/update")
+    public ResponseEntity<BatchResult> updateUsers(@Valid @RequestBody BatchUserUpdateRequest request) {
+        return ResponseEntity.ok(userBatchService.updateUsers(request.getUpdates()));
+    }
+
+    /**
+     * Delete many users, in chunked transactions; returns a result per user
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<BatchResult> deleteUsers(@Valid @RequestBody BatchDeleteRequest request) {
+        return ResponseEntity.ok(userBatchService.deleteUsers(request.getUserIds()));
+    }
+
+    /**
+     * Start a bulk import from a CSV (with header row) or NDJSON request body.
+     * Responds once the upload is staged; users are created in the background.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<UserImportJobDTO> importUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            AuthenticatedUser currentUser,
+            HttpServletRequest request) throws IOException {
+        UserImportService.Format importFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> UserImportService.Format.CSV;
+            case "ndjson" -> UserImportService.Format.NDJSON;
+            default -> throw new IllegalArgumentException("Unsupported import format: " + format);
+        };
+        UserImportJobDTO job = userImportService.startImport(request.getInputStream(), importFormat,
+                currentUser.username());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * Progress and throughput of an import job
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<UserImportJobDTO> getImportJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(userImportService.getJob(jobId));
+    }
+
+    /**
+     * Rows of an import job that were rejected, in file order (page with after=last lineNo)
+     */
+    @GetMapping("/import/{jobId}/failures")
+    public ResponseEntity<List<UserImportRowRepository.FailedRow>> getImportFailures(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userImportService.getFailures(jobId, after, limit));
+    }
+
+    /**
+     * Resume a failed or stalled import job from its last checkpoint
+     */
+    @PostMapping("/import/{jobId}/resume")
+    public ResponseEntity<UserImportJobDTO> resumeImport(@PathVariable Long jobId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(userImportService.resume(jobId));
+    }
+
     /**
      * Get user by ID
      */
@@ -50,18 +227,11 @@ public class AdminUserController {
     }
 
     /**
-     * Get user with full details (including addresses)
+     * Get user with full details (including addresses), in one query
      */
     @GetMapping("/{userId}/full")
-    public ResponseEntity<Map<String, Object>> getUserFull(@PathVariable Long userId) {
-        AdminUserDTO user = userManagementService.getUserById(userId);
-        List<AddressDTO> addresses = addressService.getUserAddressesByUserId(userId);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("user", user);
-        response.put("addresses", addresses);
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<AdminFullUserProfile> getUserFull(@PathVariable Long userId) {
+        return ResponseEntity.ok(userManagementService.getAdminFullProfile(userId));
     }
 
     /**
@@ -105,4 +275,15 @@ public class AdminUserController {
         List<AddressDTO> addresses = addressService.getUserAddressesByUserId(userId);
         return ResponseEntity.ok(addresses);
     }
+
+    /**
+     * Create several addresses for a user in one batched transaction
+     */
+    @PostMapping("/{userId}/addresses/bulk")
+    public ResponseEntity<List<AddressDTO>> createUserAddresses(
+            @PathVariable Long userId,
+            @Valid @RequestBody BulkCreateAddressRequest request) {
+        List<AddressDTO> addresses = addressService.createAddressesForUser(userId, request.getAddresses());
+        return ResponseEntity.status(HttpStatus.CREATED).body(addresses);
+    }
 }
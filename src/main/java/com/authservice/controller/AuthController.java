@@ -1,10 +1,14 @@
 package com.authservice.controller;
 
 import com.authservice.dto.*;
+import com.authservice.exception.InvalidCredentialsException;
 import com.authservice.observability.MetricsService;
+import com.authservice.security.AuthRateLimiter;
+import com.authservice.security.TokenRevocationList;
 import com.authservice.service.CognitoService;
+import com.authservice.service.RegistrationService;
+import com.authservice.service.TokenRefreshService;
 import com.authservice.service.UserService;
-import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +17,17 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
- * Authentication Controller using AWS Cognito with Observability
+ * Authentication Controller using AWS Cognito with Observability.
+ * Cognito-backed endpoints return a CompletableFuture so the servlet thread is
+ * released while the Cognito call is in flight.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -29,65 +38,85 @@ public class AuthController {
     @Autowired
     private CognitoService cognitoService;
 
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private TokenRefreshService tokenRefreshService;
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private AuthRateLimiter rateLimiter;
+
     /**
      * Login with AWS Cognito
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        Timer.Sample sample = metricsService.startTimer();
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
         long startTime = System.currentTimeMillis();
-        
-        try {
-            logger.info("Login attempt for user: {}", request.getUsername());
-            LoginResponse response = cognitoService.authenticateUser(request);
-            
-            long duration = System.currentTimeMillis() - startTime;
-            metricsService.recordLoginSuccess();
-            metricsService.recordLoginDuration(duration);
-            logger.info("Login successful for user: {} (duration: {}ms)", request.getUsername(), duration);
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            metricsService.recordLoginFailure();
-            logger.error("Login failed for user: {} (duration: {}ms)", request.getUsername(), duration, e);
-            throw e;
-        }
+
+        logger.info("Login attempt for user: {}", request.getUsername());
+        rateLimiter.acquire("login", request.getUsername(), httpRequest.getRemoteAddr());
+        return cognitoService.authenticateUser(request)
+                .whenComplete((response, e) -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    if (e == null) {
+                        rateLimiter.recordSuccess(request.getUsername());
+                        metricsService.recordLoginSuccess();
+                        metricsService.recordLoginDuration(duration);
+                        logger.info("Login successful for user: {} (duration: {}ms)", request.getUsername(), duration);
+                    } else {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof InvalidCredentialsException) {
+                            rateLimiter.recordInvalidCredentials(request.getUsername());
+                        }
+                        metricsService.recordLoginFailure();
+                        logger.error("Login failed for user: {} (duration: {}ms)", request.getUsername(), duration, e);
+                    }
+                })
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
      * Register new user with AWS Cognito
      */
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> register(
+            @Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
         long startTime = System.currentTimeMillis();
-        
-        try {
-            logger.info("Registration attempt for user: {}", request.getUsername());
-            UserDTO user = cognitoService.registerUser(request);
-            
-            long duration = System.currentTimeMillis() - startTime;
-            metricsService.recordRegistrationSuccess();
-            metricsService.recordRegistrationDuration(duration);
-            logger.info("Registration successful for user: {} (duration: {}ms)", request.getUsername(), duration);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("user", user);
-            response.put("message", "User registered successfully. Please check your email for verification.");
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            metricsService.recordRegistrationFailure();
-            logger.error("Registration failed for user: {} (duration: {}ms)", request.getUsername(), duration, e);
-            throw e;
-        }
+
+        logger.info("Registration attempt for user: {}", request.getUsername());
+        rateLimiter.acquire("register", request.getUsername(), httpRequest.getRemoteAddr());
+        return registrationService.registerUser(request)
+                .whenComplete((user, e) -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    if (e == null) {
+                        metricsService.recordRegistrationSuccess();
+                        metricsService.recordRegistrationDuration(duration);
+                        logger.info("Registration successful for user: {} (duration: {}ms)", request.getUsername(), duration);
+                    } else {
+                        metricsService.recordRegistrationFailure();
+                        logger.error("Registration failed for user: {} (duration: {}ms)", request.getUsername(), duration, e);
+                    }
+                })
+                .thenApply(user -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("user", user);
+                    response.put("message", "User registered successfully. Please check your email for verification.");
+
+                    return ResponseEntity.ok(response);
+                });
     }
 
     /**
@@ -109,109 +138,134 @@ public class AuthController {
      * Refresh access token
      */
     @PostMapping("/refresh")
-    public ResponseEntity<Map<String, String>> refreshToken(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> refreshToken(
+            @RequestBody Map<String, String> request,
+            HttpServletRequest httpRequest) {
         String refreshToken = request.get("refreshToken");
         
         if (refreshToken == null || refreshToken.isEmpty()) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
         logger.info("Token refresh request");
-        String newIdToken = cognitoService.refreshToken(refreshToken);
-        metricsService.recordTokenRefresh();
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("idToken", newIdToken);
-        
-        return ResponseEntity.ok(response);
+        rateLimiter.acquire("refresh", null, httpRequest.getRemoteAddr());
+        return tokenRefreshService.refreshToken(refreshToken)
+                .thenApply(newIdToken -> {
+                    metricsService.recordTokenRefresh();
+
+                    Map<String, String> response = new HashMap<>();
+                    response.put("idToken", newIdToken);
+
+                    return ResponseEntity.ok(response);
+                });
     }
 
     /**
-     * Sign out user
+     * Sign out user.
+     * Tokens already issued to the user are revoked locally even if Cognito is unreachable.
      */
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout(@RequestHeader("Authorization") String authHeader) {
-        try {
-            String accessToken = authHeader.replace("Bearer ", "");
-            cognitoService.signOut(accessToken);
-            
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Signed out successfully");
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Signed out locally");
-            return ResponseEntity.ok(response);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, String>>> logout(
+            @RequestHeader("Authorization") String authHeader,
+            Authentication authentication) {
+        revocationList.revoke(extractJwt(authentication));
+
+        String accessToken = authHeader.replace("Bearer ", "");
+        return cognitoService.signOut(accessToken)
+                .handle((v, e) -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", e == null ? "Signed out successfully" : "Signed out locally");
+                    return ResponseEntity.ok(response);
+                });
     }
 
     /**
      * Change password
      */
     @PostMapping("/change-password")
-    public ResponseEntity<Map<String, String>> changePassword(
+    public CompletableFuture<ResponseEntity<Map<String, String>>> changePassword(
             @RequestHeader("Authorization") String authHeader,
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, String> request,
+            Authentication authentication) {
         
         String accessToken = authHeader.replace("Bearer ", "");
         String oldPassword = request.get("oldPassword");
         String newPassword = request.get("newPassword");
 
         if (oldPassword == null || newPassword == null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
         logger.info("Password change request");
-        cognitoService.changePassword(accessToken, oldPassword, newPassword);
-        metricsService.recordPasswordChange();
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Password changed successfully");
-        
-        return ResponseEntity.ok(response);
+        return cognitoService.changePassword(accessToken, oldPassword, newPassword)
+                .thenApply(v -> {
+                    metricsService.recordPasswordChange();
+                    // Tokens issued under the old password must not outlive it
+                    revocationList.revoke(extractJwt(authentication));
+
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "Password changed successfully");
+
+                    return ResponseEntity.ok(response);
+                });
     }
 
     /**
      * Initiate forgot password flow
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<Map<String, String>> forgotPassword(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> forgotPassword(
+            @RequestBody Map<String, String> request,
+            HttpServletRequest httpRequest) {
         String username = request.get("username");
         
         if (username == null || username.isEmpty()) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
         logger.info("Password reset request for user: {}", username);
-        cognitoService.forgotPassword(username);
-        metricsService.recordPasswordReset();
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Password reset code sent to your email");
-        
-        return ResponseEntity.ok(response);
+        rateLimiter.acquire("forgot-password", username, httpRequest.getRemoteAddr());
+        return cognitoService.forgotPassword(username)
+                .thenApply(v -> {
+                    metricsService.recordPasswordReset();
+
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "Password reset code sent to your email");
+
+                    return ResponseEntity.ok(response);
+                });
     }
 
     /**
      * Confirm forgot password with verification code
      */
     @PostMapping("/confirm-forgot-password")
-    public ResponseEntity<Map<String, String>> confirmForgotPassword(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> confirmForgotPassword(@RequestBody Map<String, String> request) {
         String username = request.get("username");
         String confirmationCode = request.get("confirmationCode");
         String newPassword = request.get("newPassword");
 
         if (username == null || confirmationCode == null || newPassword == null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
-        cognitoService.confirmForgotPassword(username, confirmationCode, newPassword);
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Password reset successfully");
-        
-        return ResponseEntity.ok(response);
+        return cognitoService.confirmForgotPassword(username, confirmationCode, newPassword)
+                .thenApply(v -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "Password reset successfully");
+
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * The bearer token of a JWT authentication, if any
+     */
+    private Jwt extractJwt(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            return jwt;
+        }
+        return null;
     }
 
     /**
@@ -0,0 +1,77 @@
+package com.authservice.controller;
+
+/**
+ * Strong ETags for the profile and address resources, built from the rows' version columns.
+ * Every tag names the user or address id as well, since /me is a different resource per caller.
+ */
+final class EntityTags {
+
+    /** Returned by requiredVersion when the If-Match header lists no tag of the resource */
+    static final long NO_MATCH = -1;
+
+    private EntityTags() {
+    }
+
+    static String user(Long userId, long version) {
+        return "\"u" + userId + "." + version + "\"";
+    }
+
+    static String addresses(Long userId, long addressesVersion) {
+        return "\"al" + userId + "." + addressesVersion + "\"";
+    }
+
+    static String fullProfile(Long userId, long version, long addressesVersion) {
+        return "\"f" + userId + "." + version + "." + addressesVersion + "\"";
+    }
+
+    static String address(Long addressId, long version) {
+        return "\"a" + addressId + "." + version + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header matches the current tag (weak comparison, as for GET)
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version an If-Match header requires, for tags built by user(userId, ...) or address(addressId, ...):
+     * null when there is no precondition (no header, or *), NO_MATCH when none of its tags applies.
+     * If-Match uses the strong comparison, so weak tags never match.
+     */
+    private static Long requiredVersion(String ifMatch, String kind, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + kind + id + ".";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours; try the next tag
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    static Long requiredUserVersion(String ifMatch, Long userId) {
+        return requiredVersion(ifMatch, "u", userId);
+    }
+
+    static Long requiredAddressVersion(String ifMatch, Long addressId) {
+        return requiredVersion(ifMatch, "a", addressId);
+    }
+}
@@ -1,14 +1,16 @@
 package com.authservice.controller;
 
 import com.authservice.dto.AddressDTO;
+import com.authservice.dto.BulkCreateAddressRequest;
 import com.authservice.dto.CreateAddressRequest;
 import com.authservice.dto.UpdateAddressRequest;
+import com.authservice.security.AuthenticatedUser;
 import com.authservice.service.UserAddressService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,34 +26,42 @@ public class UserAddressController {
     private UserAddressService addressService;
 
     /**
-     * Get all addresses for the current user
+     * Get all addresses for the current user. If-None-Match is checked against the
+     * user's address list version before the addresses are read.
      */
     @GetMapping("/me/addresses")
-    public ResponseEntity<List<AddressDTO>> getMyAddresses(Authentication authentication) {
-        String username = authentication.getName();
-        List<AddressDTO> addresses = addressService.getUserAddresses(username);
-        return ResponseEntity.ok(addresses);
+    public ResponseEntity<List<AddressDTO>> getMyAddresses(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            AuthenticatedUser currentUser) {
+        // Read before the list, so the list is never older than the tag it is sent with
+        long addressesVersion = addressService.getAddressesVersion(currentUser.userId());
+        String etag = EntityTags.addresses(currentUser.userId(), addressesVersion);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<AddressDTO> addresses = addressService.getUserAddresses(currentUser.userId());
+        return ResponseEntity.ok().eTag(etag).body(addresses);
     }
 
     /**
-     * Get a specific address by ID
+     * Get a specific address by ID; its ETag is what PUT's If-Match expects
      */
     @GetMapping("/me/addresses/{addressId}")
     public ResponseEntity<AddressDTO> getAddressById(
             @PathVariable Long addressId,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AddressDTO address = addressService.getAddressById(addressId, username);
-        return ResponseEntity.ok(address);
+            AuthenticatedUser currentUser) {
+        AddressDTO address = addressService.getAddressById(addressId, currentUser.userId());
+        return ResponseEntity.ok()
+                .eTag(EntityTags.address(address.getId(), address.getVersion()))
+                .body(address);
     }
 
     /**
      * Get default address for current user
      */
     @GetMapping("/me/addresses/default")
-    public ResponseEntity<AddressDTO> getDefaultAddress(Authentication authentication) {
-        String username = authentication.getName();
-        AddressDTO address = addressService.getDefaultAddress(username);
+    public ResponseEntity<AddressDTO> getDefaultAddress(AuthenticatedUser currentUser) {
+        AddressDTO address = addressService.getDefaultAddress(currentUser.userId());
         return ResponseEntity.ok(address);
     }
 
@@ -61,23 +71,36 @@ public class UserAddressController {
     @PostMapping("/me/addresses")
     public ResponseEntity<AddressDTO> createAddress(
             @Valid @RequestBody CreateAddressRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AddressDTO address = addressService.createAddress(username, request);
+            AuthenticatedUser currentUser) {
+        AddressDTO address = addressService.createAddress(currentUser.userId(), request);
         return ResponseEntity.status(HttpStatus.CREATED).body(address);
     }
 
     /**
-     * Update an existing address
+     * Create several addresses in one batched transaction
+     */
+    @PostMapping("/me/addresses/bulk")
+    public ResponseEntity<List<AddressDTO>> createAddresses(
+            @Valid @RequestBody BulkCreateAddressRequest request,
+            AuthenticatedUser currentUser) {
+        List<AddressDTO> addresses = addressService.createAddresses(currentUser.userId(), request.getAddresses());
+        return ResponseEntity.status(HttpStatus.CREATED).body(addresses);
+    }
+
+    /**
+     * Update an existing address; with If-Match, only if it still has the given ETag
      */
     @PutMapping("/me/addresses/{addressId}")
     public ResponseEntity<AddressDTO> updateAddress(
             @PathVariable Long addressId,
             @Valid @RequestBody UpdateAddressRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AddressDTO address = addressService.updateAddress(addressId, username, request);
-        return ResponseEntity.ok(address);
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            AuthenticatedUser currentUser) {
+        AddressDTO address = addressService.updateAddress(addressId, currentUser.userId(), request,
+                EntityTags.requiredAddressVersion(ifMatch, addressId));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.address(address.getId(), address.getVersion()))
+                .body(address);
     }
 
     /**
@@ -86,9 +109,8 @@ public class UserAddressController {
     @DeleteMapping("/me/addresses/{addressId}")
     public ResponseEntity<Void> deleteAddress(
             @PathVariable Long addressId,
-            Authentication authentication) {
-        String username = authentication.getName();
-        addressService.deleteAddress(addressId, username);
+            AuthenticatedUser currentUser) {
+        addressService.deleteAddress(addressId, currentUser.userId());
         return ResponseEntity.noContent().build();
     }
 
@@ -98,9 +120,8 @@ public class UserAddressController {
     @PatchMapping("/me/addresses/{addressId}/default")
     public ResponseEntity<AddressDTO> setDefaultAddress(
             @PathVariable Long addressId,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AddressDTO address = addressService.setDefaultAddress(addressId, username);
+            AuthenticatedUser currentUser) {
+        AddressDTO address = addressService.setDefaultAddress(addressId, currentUser.userId());
         return ResponseEntity.ok(address);
     }
 }
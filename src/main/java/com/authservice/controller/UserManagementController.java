@@ -1,18 +1,19 @@
 package com.authservice.controller;
 
-import com.authservice.dto.AddressDTO;
+import com.authservice.dto.FullUserProfile;
 import com.authservice.dto.UpdateUserProfileRequest;
 import com.authservice.dto.UserDTO;
-import com.authservice.service.UserAddressService;
+import com.authservice.repository.UserVersions;
+import com.authservice.security.AuthenticatedUser;
 import com.authservice.service.UserManagementService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,54 +26,64 @@ public class UserManagementController {
     @Autowired
     private UserManagementService userManagementService;
 
-    @Autowired
-    private UserAddressService addressService;
-
     /**
-     * Get current user profile
+     * Get current user profile. The profile comes from the cache, and a matching If-None-Match
+     * is answered with 304 by Spring before the body is serialized.
      */
     @GetMapping("/me")
-    public ResponseEntity<UserDTO> getMyProfile(Authentication authentication) {
-        String username = authentication.getName();
-        UserDTO user = userManagementService.getUserProfile(username);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserDTO> getMyProfile(AuthenticatedUser currentUser) {
+        UserDTO user = userManagementService.getUserProfile(currentUser.userId());
+        return ResponseEntity.ok()
+                .eTag(EntityTags.user(user.getId(), user.getVersion()))
+                .body(user);
     }
 
     /**
-     * Update current user profile
+     * Update current user profile; with If-Match, only if it still has the given ETag
      */
     @PutMapping("/me")
     public ResponseEntity<UserDTO> updateMyProfile(
             @Valid @RequestBody UpdateUserProfileRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        UserDTO user = userManagementService.updateUserProfile(username, request);
-        return ResponseEntity.ok(user);
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            AuthenticatedUser currentUser) {
+        UserDTO user = userManagementService.updateUserProfile(currentUser.userId(), request,
+                EntityTags.requiredUserVersion(ifMatch, currentUser.userId()));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.user(user.getId(), user.getVersion()))
+                .body(user);
     }
 
     /**
-     * Get current user profile with addresses
+     * Get current user profile with addresses, in one query. If-None-Match is checked
+     * against the version columns alone, before the addresses are read.
      */
     @GetMapping("/me/full")
-    public ResponseEntity<Map<String, Object>> getFullProfile(Authentication authentication) {
-        String username = authentication.getName();
-        UserDTO user = userManagementService.getUserProfile(username);
-        List<AddressDTO> addresses = addressService.getUserAddresses(username);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("user", user);
-        response.put("addresses", addresses);
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<FullUserProfile> getFullProfile(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            AuthenticatedUser currentUser) {
+        if (ifNoneMatch != null) {
+            UserVersions versions = userManagementService.getVersions(currentUser.userId());
+            String current = EntityTags.fullProfile(currentUser.userId(), versions.version(),
+                    versions.addressesVersion());
+            if (EntityTags.matches(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+            }
+        }
+
+        // The versions come from the same rows as the content, so the tag always describes the body
+        FullUserProfile profile = userManagementService.getFullProfile(currentUser.userId());
+        return ResponseEntity.ok()
+                .eTag(EntityTags.fullProfile(currentUser.userId(), profile.user().getVersion(),
+                        profile.addressesVersion()))
+                .body(profile);
     }
 
     /**
      * Delete current user account (soft delete / deactivation could be implemented)
      */
     @DeleteMapping("/me")
-    public ResponseEntity<Map<String, String>> deleteMyAccount(Authentication authentication) {
-        String username = authentication.getName();
-        userManagementService.deleteUser(username);
+    public ResponseEntity<Map<String, String>> deleteMyAccount(AuthenticatedUser currentUser) {
+        userManagementService.deleteUser(currentUser.username());
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Account successfully deleted");
@@ -1,6 +1,7 @@
 package com.authservice.dto;
 
 import com.authservice.model.UserAddress;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,6 +26,9 @@ public class AddressDTO {
     private String addressType;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    /** Row version, published as the ETag rather than in the body */
+    @JsonIgnore
+    private Long version;
 
     public static AddressDTO from(UserAddress address) {
         return AddressDTO.builder()
@@ -40,6 +44,7 @@ public class AddressDTO {
                 .addressType(address.getAddressType())
                 .createdAt(address.getCreatedAt())
                 .updatedAt(address.getUpdatedAt())
+                .version(address.getVersion())
                 .build();
     }
 }
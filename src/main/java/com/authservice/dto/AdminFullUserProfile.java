@@ -0,0 +1,9 @@
+package com.authservice.dto;
+
+import java.util.List;
+
+/**
+ * A user with their address count and addresses (GET /api/admin/users/{userId}/full)
+ */
+public record AdminFullUserProfile(AdminUserDTO user, List<AddressDTO> addresses) {
+}
@@ -43,4 +43,19 @@ public class AdminUserDTO {
         dto.setAddressCount(addressCount);
         return dto;
     }
+    
+    public static AdminUserDTO from(UserDTO user, int addressCount) {
+        return AdminUserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .phone(user.getPhone())
+                .role(user.getRole())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .addressCount(addressCount)
+                .build();
+    }
 }
@@ -0,0 +1,14 @@
+package com.authservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchDeleteRequest {
+
+    @NotEmpty(message = "At least one user id is required")
+    private List<@NotNull Long> userIds;
+}
@@ -0,0 +1,13 @@
+package com.authservice.dto;
+
+/**
+ * Outcome of one item of an admin batch operation; error is set unless it succeeded
+ */
+public record BatchItemResult(Long userId, Status status, String error) {
+
+    public enum Status { UPDATED, UNCHANGED, DELETED, NOT_FOUND, CONFLICT, INVALID, FAILED }
+
+    public boolean succeeded() {
+        return status == Status.UPDATED || status == Status.UNCHANGED || status == Status.DELETED;
+    }
+}
@@ -0,0 +1,14 @@
+package com.authservice.dto;
+
+import java.util.List;
+
+/**
+ * Summary of an admin batch operation, with one result per distinct requested user in request order
+ */
+public record BatchResult(int requested, int succeeded, int failed, List<BatchItemResult> results) {
+
+    public static BatchResult of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResult(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
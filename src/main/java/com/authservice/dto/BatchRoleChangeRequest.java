@@ -0,0 +1,18 @@
+package com.authservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchRoleChangeRequest {
+
+    @NotEmpty(message = "At least one user id is required")
+    private List<@NotNull Long> userIds;
+
+    @NotBlank(message = "Role is required")
+    private String role;
+}
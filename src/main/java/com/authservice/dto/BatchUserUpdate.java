@@ -0,0 +1,18 @@
+package com.authservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * One item of a batch update: the same fields and validation as a single admin update
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class BatchUserUpdate extends AdminUserUpdateRequest {
+
+    @NotNull(message = "User id is required")
+    private Long userId;
+}
@@ -0,0 +1,14 @@
+package com.authservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchUserUpdateRequest {
+
+    @NotEmpty(message = "At least one update is required")
+    private List<@Valid BatchUserUpdate> updates;
+}
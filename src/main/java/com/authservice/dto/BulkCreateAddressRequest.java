@@ -0,0 +1,16 @@
+package com.authservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCreateAddressRequest {
+
+    @NotEmpty(message = "At least one address is required")
+    @Size(max = 100, message = "At most 100 addresses can be created at once")
+    private List<@Valid CreateAddressRequest> addresses;
+}
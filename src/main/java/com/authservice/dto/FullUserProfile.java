@@ -0,0 +1,12 @@
+package com.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * A user with their addresses, default first (GET /api/users/me/full).
+ * addressesVersion goes into the ETag, not the body.
+ */
+public record FullUserProfile(UserDTO user, List<AddressDTO> addresses, @JsonIgnore long addressesVersion) {
+}
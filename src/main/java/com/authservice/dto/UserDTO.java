@@ -1,6 +1,7 @@
 package com.authservice.dto;
 
 import com.authservice.model.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,6 +23,9 @@ public class UserDTO {
     private String role;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    /** Row version, published as the ETag rather than in the body */
+    @JsonIgnore
+    private Long version;
 
     public static UserDTO from(User user) {
         return UserDTO.builder()
@@ -34,6 +38,7 @@ public class UserDTO {
                 .role(user.getRole())
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
+                .version(user.getVersion())
                 .build();
     }
 }
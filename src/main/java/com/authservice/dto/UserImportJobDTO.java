@@ -0,0 +1,64 @@
+package com.authservice.dto;
+
+import com.authservice.model.UserImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportJobDTO {
+    private Long id;
+    private String status;
+    private String format;
+    private String createdBy;
+    private Long totalRows;
+    private Long loadedRows;
+    private Long provisionedRows;
+    private Long failedRows;
+    /** Rows still waiting for their Cognito user */
+    private Long pendingRows;
+    /** Cognito users created per second since provisioning started */
+    private Double rowsPerSecond;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime stagedAt;
+    private LocalDateTime loadedAt;
+    private LocalDateTime provisioningStartedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime updatedAt;
+
+    public static UserImportJobDTO from(UserImportJob job) {
+        Double rowsPerSecond = null;
+        if (job.getProvisioningStartedAt() != null) {
+            LocalDateTime end = job.getCompletedAt() != null ? job.getCompletedAt() : job.getUpdatedAt();
+            long millis = Duration.between(job.getProvisioningStartedAt(), end).toMillis();
+            rowsPerSecond = millis > 0 ? job.getProvisionedRows() * 1000.0 / millis : null;
+        }
+        return UserImportJobDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .format(job.getFormat())
+                .createdBy(job.getCreatedBy())
+                .totalRows(job.getTotalRows())
+                .loadedRows(job.getLoadedRows())
+                .provisionedRows(job.getProvisionedRows())
+                .failedRows(job.getFailedRows())
+                .pendingRows(Math.max(0, job.getTotalRows() - job.getProvisionedRows() - job.getFailedRows()))
+                .rowsPerSecond(rowsPerSecond)
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .stagedAt(job.getStagedAt())
+                .loadedAt(job.getLoadedAt())
+                .provisioningStartedAt(job.getProvisioningStartedAt())
+                .completedAt(job.getCompletedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
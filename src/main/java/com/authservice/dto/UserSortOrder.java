@@ -0,0 +1,34 @@
+package com.authservice.dto;
+
+/**
+ * Index-backed sort orders for the paginated admin user list
+ */
+public enum UserSortOrder {
+    CREATED_AT("createdAt"),
+    CREATED_AT_DESC("-createdAt"),
+    USERNAME("username"),
+    USERNAME_DESC("-username");
+
+    private final String value;
+
+    UserSortOrder(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static UserSortOrder fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return CREATED_AT;
+        }
+        for (UserSortOrder order : values()) {
+            if (order.value.equals(value.trim())) {
+                return order;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value
+                + " (use createdAt, -createdAt, username or -username)");
+    }
+}
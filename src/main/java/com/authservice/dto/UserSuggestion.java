@@ -0,0 +1,7 @@
+package com.authservice.dto;
+
+/**
+ * One typeahead match for the admin user search
+ */
+public record UserSuggestion(Long id, String username, String email) {
+}
@@ -0,0 +1,354 @@
+package com.authservice.emulator;
+
+import com.authservice.config.CognitoEmulatorProperties;
+import com.authservice.resilience.CognitoApiCategory;
+import com.authservice.security.TokenHashing;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the Cognito user pool, active under the
+ * cognito-emulator profile.
+ *
+ * Implements the operations CognitoService uses, keeps users in memory and
+ * issues locally signed JWTs that the resource server validates through
+ * the emulator's JWKS endpoint. Every call is delayed and optionally throttled
+ * or failed by EmulatorFaultInjector, so login, registration and refresh can
+ * be load-tested end to end without AWS.
+ */
+@Component
+@Profile("cognito-emulator")
+public class EmulatedCognitoClient implements CognitoIdentityProviderAsyncClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmulatedCognitoClient.class);
+
+    private static final int MIN_PASSWORD_LENGTH = 8;
+
+    private final CognitoEmulatorProperties properties;
+    private final EmulatorFaultInjector faults;
+    private final EmulatorTokenIssuer tokenIssuer;
+    private final Executor completionExecutor;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, EmulatedUser> users = new ConcurrentHashMap<>();
+    private final Cache<String, RefreshGrant> refreshGrants;
+
+    public EmulatedCognitoClient(CognitoEmulatorProperties properties,
+                                 EmulatorFaultInjector faults,
+                                 EmulatorTokenIssuer tokenIssuer,
+                                 @Qualifier("cognitoCompletionExecutor") ExecutorService cognitoCompletionExecutor) {
+        this.properties = properties;
+        this.faults = faults;
+        this.tokenIssuer = tokenIssuer;
+        this.completionExecutor = cognitoCompletionExecutor;
+        this.refreshGrants = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxRefreshGrants())
+                .expireAfterWrite(Duration.ofSeconds(properties.getRefreshTokenValiditySeconds()))
+                .build();
+        logger.warn("Cognito emulator is active: users and tokens are local and not persisted");
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        users.clear();
+        refreshGrants.invalidateAll();
+    }
+
+    @Override
+    public CompletableFuture<InitiateAuthResponse> initiateAuth(InitiateAuthRequest request) {
+        return emulate(CognitoApiCategory.USER_AUTHENTICATION, "InitiateAuth", () -> {
+            Map<String, String> params = request.authParameters();
+            return switch (request.authFlow()) {
+                case USER_PASSWORD_AUTH -> passwordAuth(params.get("USERNAME"), params.get("PASSWORD"));
+                case REFRESH_TOKEN_AUTH, REFRESH_TOKEN -> refreshAuth(params.get("REFRESH_TOKEN"));
+                default -> throw invalidParameter("Auth flow not supported by the emulator: " + request.authFlowAsString());
+            };
+        });
+    }
+
+    @Override
+    public CompletableFuture<SignUpResponse> signUp(SignUpRequest request) {
+        return emulate(CognitoApiCategory.USER_CREATION, "SignUp", () -> {
+            checkPasswordPolicy(request.password());
+            Map<String, String> attributes = new HashMap<>();
+            for (AttributeType attribute : request.userAttributes()) {
+                if (attribute.value() != null) {
+                    attributes.put(attribute.name(), attribute.value());
+                }
+            }
+            EmulatedUser user = new EmulatedUser(request.username(), UUID.randomUUID().toString(),
+                    TokenHashing.sha256(request.password()), attributes);
+            if (users.putIfAbsent(request.username(), user) != null) {
+                throw (UsernameExistsException) EmulatorFaultInjector.error(UsernameExistsException.builder(),
+                        "UsernameExistsException", 400, "User already exists");
+            }
+            return SignUpResponse.builder()
+                    .userSub(user.getSub())
+                    .userConfirmed(false)
+                    .build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<AdminConfirmSignUpResponse> adminConfirmSignUp(AdminConfirmSignUpRequest request) {
+        return emulate(CognitoApiCategory.USER_CREATION, "AdminConfirmSignUp", () -> {
+            EmulatedUser user = requireUser(request.username());
+            if (user.isConfirmed()) {
+                throw notAuthorized("User cannot be confirmed. Current status is CONFIRMED");
+            }
+            user.setConfirmed(true);
+            return AdminConfirmSignUpResponse.builder().build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<AdminCreateUserResponse> adminCreateUser(AdminCreateUserRequest request) {
+        return emulate(CognitoApiCategory.USER_CREATION, "AdminCreateUser", () -> {
+            Map<String, String> attributes = new HashMap<>();
+            for (AttributeType attribute : request.userAttributes()) {
+                if (attribute.value() != null) {
+                    attributes.put(attribute.name(), attribute.value());
+                }
+            }
+            // The temporary password is never delivered, so an imported user signs in after a password reset
+            byte[] password = new byte[24];
+            random.nextBytes(password);
+            EmulatedUser user = new EmulatedUser(request.username(), UUID.randomUUID().toString(),
+                    TokenHashing.sha256(Base64.getEncoder().encodeToString(password)), attributes);
+            user.setConfirmed(true);
+            if (users.putIfAbsent(request.username(), user) != null) {
+                throw (UsernameExistsException) EmulatorFaultInjector.error(UsernameExistsException.builder(),
+                        "UsernameExistsException", 400, "User account already exists");
+            }
+            attributes.put("sub", user.getSub());
+            return AdminCreateUserResponse.builder()
+                    .user(UserType.builder()
+                            .username(user.getUsername())
+                            .attributes(attributes.entrySet().stream()
+                                    .map(entry -> AttributeType.builder()
+                                            .name(entry.getKey())
+                                            .value(entry.getValue())
+                                            .build())
+                                    .toList())
+                            .userStatus(UserStatusType.FORCE_CHANGE_PASSWORD)
+                            .enabled(true)
+                            .build())
+                    .build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<AdminGetUserResponse> adminGetUser(AdminGetUserRequest request) {
+        return emulate(CognitoApiCategory.USER_READ, "AdminGetUser", () -> {
+            EmulatedUser user = requireUser(request.username());
+            Map<String, String> attributes = new HashMap<>(user.getAttributes());
+            attributes.put("sub", user.getSub());
+            return AdminGetUserResponse.builder()
+                    .username(user.getUsername())
+                    .userAttributes(attributes.entrySet().stream()
+                            .map(entry -> AttributeType.builder()
+                                    .name(entry.getKey())
+                                    .value(entry.getValue())
+                                    .build())
+                            .toList())
+                    .userStatus(user.isConfirmed() ? UserStatusType.CONFIRMED : UserStatusType.UNCONFIRMED)
+                    .enabled(true)
+                    .build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<AdminDeleteUserResponse> adminDeleteUser(AdminDeleteUserRequest request) {
+        return emulate(CognitoApiCategory.USER_UPDATE, "AdminDeleteUser", () -> {
+            if (users.remove(request.username()) == null) {
+                throw userNotFound();
+            }
+            return AdminDeleteUserResponse.builder().build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<GlobalSignOutResponse> globalSignOut(GlobalSignOutRequest request) {
+        return emulate(CognitoApiCategory.USER_AUTHENTICATION, "GlobalSignOut", () -> {
+            authenticateAccessToken(request.accessToken()).setRevokedBeforeMillis(System.currentTimeMillis());
+            return GlobalSignOutResponse.builder().build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<ChangePasswordResponse> changePassword(ChangePasswordRequest request) {
+        return emulate(CognitoApiCategory.USER_UPDATE, "ChangePassword", () -> {
+            EmulatedUser user = authenticateAccessToken(request.accessToken());
+            if (!user.getPasswordHash().equals(TokenHashing.sha256(request.previousPassword()))) {
+                throw notAuthorized("Incorrect username or password.");
+            }
+            checkPasswordPolicy(request.proposedPassword());
+            user.setPasswordHash(TokenHashing.sha256(request.proposedPassword()));
+            return ChangePasswordResponse.builder().build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<ForgotPasswordResponse> forgotPassword(ForgotPasswordRequest request) {
+        return emulate(CognitoApiCategory.ACCOUNT_RECOVERY, "ForgotPassword", () -> {
+            EmulatedUser user = requireUser(request.username());
+            return ForgotPasswordResponse.builder()
+                    .codeDeliveryDetails(CodeDeliveryDetailsType.builder()
+                            .deliveryMedium(DeliveryMediumType.EMAIL)
+                            .attributeName("email")
+                            .destination(user.getAttributes().getOrDefault("email", ""))
+                            .build())
+                    .build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<ConfirmForgotPasswordResponse> confirmForgotPassword(ConfirmForgotPasswordRequest request) {
+        return emulate(CognitoApiCategory.ACCOUNT_RECOVERY, "ConfirmForgotPassword", () -> {
+            EmulatedUser user = requireUser(request.username());
+            if (!properties.getRecoveryCode().equals(request.confirmationCode())) {
+                throw (CodeMismatchException) EmulatorFaultInjector.error(CodeMismatchException.builder(),
+                        "CodeMismatchException", 400, "Invalid verification code provided, please try again.");
+            }
+            checkPasswordPolicy(request.password());
+            user.setPasswordHash(TokenHashing.sha256(request.password()));
+            return ConfirmForgotPasswordResponse.builder().build();
+        });
+    }
+
+    /**
+     * Complete the call after the sampled latency, failing it if a fault is injected
+     */
+    private <T> CompletableFuture<T> emulate(CognitoApiCategory category, String operation, Supplier<T> handler) {
+        long latencyMillis = faults.sampleLatencyMillis(operation);
+        Executor delayed = latencyMillis > 0
+                ? CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, completionExecutor)
+                : completionExecutor;
+        return CompletableFuture.supplyAsync(() -> {
+            CognitoIdentityProviderException fault = faults.fault(category, operation);
+            if (fault != null) {
+                throw fault;
+            }
+            return handler.get();
+        }, delayed);
+    }
+
+    private InitiateAuthResponse passwordAuth(String username, String password) {
+        EmulatedUser user = requireUser(username);
+        if (password == null || !user.getPasswordHash().equals(TokenHashing.sha256(password))) {
+            throw notAuthorized("Incorrect username or password.");
+        }
+        if (!user.isConfirmed()) {
+            throw (UserNotConfirmedException) EmulatorFaultInjector.error(UserNotConfirmedException.builder(),
+                    "UserNotConfirmedException", 400, "User is not confirmed.");
+        }
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshGrants.put(refreshToken, new RefreshGrant(user.getUsername(), user.getSub(), System.currentTimeMillis()));
+
+        return InitiateAuthResponse.builder()
+                .authenticationResult(tokens(user).refreshToken(refreshToken).build())
+                .build();
+    }
+
+    private InitiateAuthResponse refreshAuth(String refreshToken) {
+        RefreshGrant grant = refreshToken == null ? null : refreshGrants.getIfPresent(refreshToken);
+        EmulatedUser user = grant == null ? null : users.get(grant.username());
+        if (user == null || !user.getSub().equals(grant.sub())
+                || grant.issuedAtMillis() < user.getRevokedBeforeMillis()) {
+            if (grant != null) {
+                refreshGrants.invalidate(refreshToken);
+            }
+            throw notAuthorized("Invalid Refresh Token");
+        }
+        // Like Cognito, a refresh returns new id and access tokens but no new refresh token
+        return InitiateAuthResponse.builder()
+                .authenticationResult(tokens(user).build())
+                .build();
+    }
+
+    private AuthenticationResultType.Builder tokens(EmulatedUser user) {
+        return AuthenticationResultType.builder()
+                .idToken(tokenIssuer.issueIdToken(user))
+                .accessToken(tokenIssuer.issueAccessToken(user))
+                .tokenType("Bearer")
+                .expiresIn((int) properties.getTokenValiditySeconds());
+    }
+
+    private EmulatedUser authenticateAccessToken(String accessToken) {
+        JWTClaimsSet claims = accessToken == null ? null : tokenIssuer.verify(accessToken);
+        if (claims == null || !"access".equals(claims.getClaim("token_use"))) {
+            throw notAuthorized("Invalid Access Token");
+        }
+        EmulatedUser user = users.get((String) claims.getClaim("username"));
+        if (user == null || !user.getSub().equals(claims.getSubject())) {
+            throw notAuthorized("Invalid Access Token");
+        }
+        if (claims.getIssueTime().getTime() < user.getRevokedBeforeMillis()) {
+            throw notAuthorized("Access Token has been revoked");
+        }
+        return user;
+    }
+
+    private EmulatedUser requireUser(String username) {
+        EmulatedUser user = username == null ? null : users.get(username);
+        if (user == null) {
+            throw userNotFound();
+        }
+        return user;
+    }
+
+    private static void checkPasswordPolicy(String password) {
+        if (password == null || password.length() < MIN_PASSWORD_LENGTH) {
+            throw (InvalidPasswordException) EmulatorFaultInjector.error(InvalidPasswordException.builder(),
+                    "InvalidPasswordException", 400,
+                    "Password did not conform with policy: Password not long enough");
+        }
+    }
+
+    private static UserNotFoundException userNotFound() {
+        return (UserNotFoundException) EmulatorFaultInjector.error(UserNotFoundException.builder(),
+                "UserNotFoundException", 400, "User does not exist.");
+    }
+
+    private static NotAuthorizedException notAuthorized(String message) {
+        return (NotAuthorizedException) EmulatorFaultInjector.error(NotAuthorizedException.builder(),
+                "NotAuthorizedException", 400, message);
+    }
+
+    private static InvalidParameterException invalidParameter(String message) {
+        return (InvalidParameterException) EmulatorFaultInjector.error(InvalidParameterException.builder(),
+                "InvalidParameterException", 400, message);
+    }
+
+    private record RefreshGrant(String username, String sub, long issuedAtMillis) {
+    }
+}
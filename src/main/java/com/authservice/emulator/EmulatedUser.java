@@ -0,0 +1,34 @@
+package com.authservice.emulator;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * A user record held by the Cognito emulator
+ */
+@Getter
+public class EmulatedUser {
+
+    private final String username;
+    private final String sub;
+    private final Map<String, String> attributes;
+
+    @Setter
+    private volatile String passwordHash;
+
+    @Setter
+    private volatile boolean confirmed;
+
+    /** Tokens and refresh grants issued before this instant are revoked (GlobalSignOut) */
+    @Setter
+    private volatile long revokedBeforeMillis;
+
+    public EmulatedUser(String username, String sub, String passwordHash, Map<String, String> attributes) {
+        this.username = username;
+        this.sub = sub;
+        this.passwordHash = passwordHash;
+        this.attributes = Map.copyOf(attributes);
+    }
+}
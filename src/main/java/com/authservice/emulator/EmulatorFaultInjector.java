@@ -0,0 +1,111 @@
+package com.authservice.emulator;
+
+import com.authservice.config.CognitoEmulatorProperties;
+import com.authservice.resilience.CognitoApiCategory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InternalErrorException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the simulated latency, throttling and injected errors for each
+ * emulated Cognito call, according to CognitoEmulatorProperties.
+ */
+@Component
+@Profile("cognito-emulator")
+public class EmulatorFaultInjector {
+
+    private final CognitoEmulatorProperties properties;
+    private final Map<CognitoApiCategory, QuotaWindow> quotas = new EnumMap<>(CognitoApiCategory.class);
+
+    public EmulatorFaultInjector(CognitoEmulatorProperties properties) {
+        this.properties = properties;
+        properties.getRequestsPerSecond().forEach((category, limit) -> {
+            if (limit != null && limit > 0) {
+                quotas.put(category, new QuotaWindow(limit));
+            }
+        });
+    }
+
+    /**
+     * Sample the response latency for an operation
+     */
+    public long sampleLatencyMillis(String operation) {
+        CognitoEmulatorProperties.Latency latency =
+                properties.getOperationLatency().getOrDefault(operation, properties.getLatency());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double millis = switch (latency.getDistribution()) {
+            case FIXED -> latency.getMedianMillis();
+            case UNIFORM -> latency.getMinMillis()
+                    + random.nextDouble() * Math.max(0, latency.getMaxMillis() - latency.getMinMillis());
+            case LOG_NORMAL -> latency.getMedianMillis() * Math.exp(latency.getSigma() * random.nextGaussian());
+        };
+        return Math.max(0, Math.min(latency.getMaxMillis(), Math.round(millis)));
+    }
+
+    /**
+     * The fault to fail this call with, or null to let it through
+     */
+    public CognitoIdentityProviderException fault(CognitoApiCategory category, String operation) {
+        QuotaWindow quota = quotas.get(category);
+        if (quota != null && !quota.tryAcquire()) {
+            return error(TooManyRequestsException.builder(), "TooManyRequestsException", 429,
+                    "Rate exceeded");
+        }
+        double errorRate = properties.getErrorRates().getOrDefault(operation, 0.0);
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return error(InternalErrorException.builder(), "InternalErrorException", 500,
+                    "Injected internal error");
+        }
+        return null;
+    }
+
+    /**
+     * Build a Cognito service exception shaped like the real SDK would
+     */
+    static CognitoIdentityProviderException error(CognitoIdentityProviderException.Builder builder,
+                                                 String errorCode, int statusCode, String message) {
+        return (CognitoIdentityProviderException) builder
+                .message(message)
+                .statusCode(statusCode)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode(errorCode)
+                        .errorMessage(message)
+                        .serviceName("CognitoIdentityProvider")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Fixed one-second window counter, like Cognito's per-second quotas
+     */
+    private static class QuotaWindow {
+        private final int limit;
+        private long windowStartNanos = System.nanoTime();
+        private int used;
+
+        QuotaWindow(int limit) {
+            this.limit = limit;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            if (now - windowStartNanos >= TimeUnit.SECONDS.toNanos(1)) {
+                windowStartNanos = now;
+                used = 0;
+            }
+            if (used >= limit) {
+                return false;
+            }
+            used++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.authservice.emulator;
+
+import com.authservice.security.JwkSetCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * JWKS endpoint of the Cognito emulator; point aws.cognito.jwk-set-uri here
+ */
+@RestController
+@RequestMapping("/emulator/cognito")
+@Profile("cognito-emulator")
+public class EmulatorJwksController {
+
+    @Autowired
+    private EmulatorTokenIssuer tokenIssuer;
+
+    @Autowired
+    private JwkSetCache jwkSetCache;
+
+    @GetMapping("/.well-known/jwks.json")
+    public Map<String, Object> jwks() {
+        return tokenIssuer.publicJwkSet();
+    }
+
+    /**
+     * The decoder's warm-up runs before this endpoint is served, so load the keys once it is
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadEmulatorKeys() {
+        jwkSetCache.refresh();
+    }
+}
@@ -0,0 +1,134 @@
+package com.authservice.emulator;
+
+import com.authservice.config.AwsCognitoConfig;
+import com.authservice.config.CognitoEmulatorProperties;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Signs Cognito-shaped id and access tokens with an RSA key generated at
+ * startup, and publishes the public half as a JWK set.
+ */
+@Component
+@Profile("cognito-emulator")
+public class EmulatorTokenIssuer {
+
+    private final CognitoEmulatorProperties properties;
+    private final AwsCognitoConfig cognitoConfig;
+    private final RSAKey signingKey;
+    private final RSASSASigner signer;
+    private final RSASSAVerifier verifier;
+
+    public EmulatorTokenIssuer(CognitoEmulatorProperties properties, AwsCognitoConfig cognitoConfig)
+            throws JOSEException {
+        this.properties = properties;
+        this.cognitoConfig = cognitoConfig;
+        this.signingKey = new RSAKeyGenerator(2048)
+                .keyID(UUID.randomUUID().toString())
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.RS256)
+                .generate();
+        this.signer = new RSASSASigner(signingKey);
+        this.verifier = new RSASSAVerifier(signingKey.toRSAPublicKey());
+    }
+
+    /**
+     * Public signing keys, as served by Cognito's /.well-known/jwks.json
+     */
+    public Map<String, Object> publicJwkSet() {
+        return new JWKSet(signingKey.toPublicJWK()).toJSONObject(true);
+    }
+
+    public String issueIdToken(EmulatedUser user) {
+        JWTClaimsSet.Builder claims = baseClaims(user)
+                .audience(cognitoConfig.getClientId())
+                .claim("token_use", "id")
+                .claim("cognito:username", user.getUsername())
+                .claim("email", user.getAttributes().get("email"))
+                .claim("given_name", user.getAttributes().get("given_name"))
+                .claim("family_name", user.getAttributes().get("family_name"))
+                .claim("email_verified", true);
+        return sign(claims.build());
+    }
+
+    public String issueAccessToken(EmulatedUser user) {
+        JWTClaimsSet.Builder claims = baseClaims(user)
+                .claim("token_use", "access")
+                .claim("client_id", cognitoConfig.getClientId())
+                .claim("username", user.getUsername())
+                .claim("scope", "aws.cognito.signin.user.admin");
+        return sign(claims.build());
+    }
+
+    /**
+     * Verify a token issued by this emulator, returning null when it is forged or expired
+     */
+    public JWTClaimsSet verify(String token) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            if (!jwt.verify(verifier)) {
+                return null;
+            }
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            if (claims.getExpirationTime() == null || claims.getExpirationTime().before(new Date())) {
+                return null;
+            }
+            return claims;
+        } catch (ParseException | JOSEException e) {
+            return null;
+        }
+    }
+
+    private JWTClaimsSet.Builder baseClaims(EmulatedUser user) {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject(user.getSub())
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(properties.getTokenValiditySeconds())))
+                .claim("auth_time", now.getEpochSecond());
+        List<String> groups = properties.getUserGroups().get(user.getUsername());
+        if (groups != null && !groups.isEmpty()) {
+            claims.claim("cognito:groups", groups);
+        }
+        return claims;
+    }
+
+    private String issuer() {
+        String poolId = cognitoConfig.getUserPoolId();
+        if (poolId == null || poolId.isEmpty()) {
+            poolId = "local-emulator";
+        }
+        return "https://cognito-idp." + cognitoConfig.getRegion() + ".amazonaws.com/" + poolId;
+    }
+
+    private String sign(JWTClaimsSet claims) {
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign emulator token", e);
+        }
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,12 @@
+package com.authservice.exception;
+
+/**
+ * Cognito rejected the supplied credentials (NotAuthorizedException).
+ * Handled as a 400 like other IllegalArgumentExceptions, but distinguishable
+ * so repeated failures can drive the login lockout.
+ */
+public class InvalidCredentialsException extends IllegalArgumentException {
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.authservice.exception;
+
+/**
+ * The resource no longer matches the version named in the request's If-Match header
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
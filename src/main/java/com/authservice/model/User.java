@@ -7,6 +7,11 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Besides the column indexes, database/01-init.sql defines pg_trgm GIN indexes on
+ * lower(username), lower(email) and the lowercased full name for the admin substring
+ * search; Hibernate cannot express operator classes, so they live only in the script.
+ */
 @Entity
 @Table(name = "users")
 @Data
@@ -14,13 +19,19 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class User {
     
+    /** Ids come from the BIGSERIAL sequence in blocks of 50 (its INCREMENT BY), so inserts can be batched */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true, length = 100)
     private String username;
     
+    /** Immutable Cognito user id (the JWT sub); null for rows not yet linked */
+    @Column(name = "cognito_sub", unique = true, length = 64)
+    private String cognitoSub;
+    
     @Column(nullable = false, unique = true, length = 255)
     private String email;
     
@@ -45,6 +56,16 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    /** Optimistic lock; bulk JPQL and SQL updates of users must increment it too */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
+    /** Bumped on every change to the user's addresses by a trigger in database/01-init.sql; read-only here */
+    @Column(name = "addresses_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private Long addressesVersion;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class UserAddress {
     
+    /** Ids come from the BIGSERIAL sequence in blocks of 50 (its INCREMENT BY), so inserts can be batched */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_addresses_seq")
+    @SequenceGenerator(name = "user_addresses_seq", sequenceName = "user_addresses_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -52,6 +54,11 @@ public class UserAddress {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    /** Optimistic lock; native updates of user_addresses must increment it too */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,90 @@
+package com.authservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An admin bulk import. The uploaded rows live in user_import_rows (written with COPY,
+ * so they have no entity); this row tracks the job's phase and progress counters.
+ */
+@Entity
+@Table(name = "user_import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportJob {
+
+    public static final String STAGING = "STAGING";
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String status = STAGING;
+
+    @Column(nullable = false, length = 10)
+    private String format;
+
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+
+    @Column(name = "total_rows", nullable = false)
+    private Long totalRows = 0L;
+
+    /** Rows inserted into users (the rest of the valid rows clashed with existing users) */
+    @Column(name = "loaded_rows", nullable = false)
+    private Long loadedRows = 0L;
+
+    @Column(name = "provisioned_rows", nullable = false)
+    private Long provisionedRows = 0L;
+
+    @Column(name = "failed_rows", nullable = false)
+    private Long failedRows = 0L;
+
+    /** Set when a runner starts the job; that runner's writes must match it */
+    @Column(name = "run_token", length = 36)
+    private String runToken;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /** Set once the upload is fully staged; only staged jobs can be resumed */
+    @Column(name = "staged_at")
+    private LocalDateTime stagedAt;
+
+    /** Set once the local users rows are inserted */
+    @Column(name = "loaded_at")
+    private LocalDateTime loadedAt;
+
+    @Column(name = "provisioning_started_at")
+    private LocalDateTime provisioningStartedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
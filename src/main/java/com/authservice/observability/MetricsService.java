@@ -1,11 +1,15 @@
 package com.authservice.observability;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Service for tracking custom application metrics
@@ -13,6 +17,8 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class MetricsService {
 
+    private final MeterRegistry meterRegistry;
+
     private final Counter loginSuccessCounter;
     private final Counter loginFailureCounter;
     private final Counter registrationSuccessCounter;
@@ -20,8 +26,14 @@ public class MetricsService {
     private final Counter passwordResetCounter;
     private final Counter passwordChangeCounter;
     private final Counter tokenRefreshCounter;
+    private final Counter tokenRefreshUpstreamCounter;
+    private final Counter tokenRefreshCoalescedInFlightCounter;
+    private final Counter tokenRefreshCoalescedRecentCounter;
     private final Timer loginTimer;
     private final Timer registrationTimer;
+    private final Counter registrationCompensationCounter;
+    private final Counter registrationConfirmationRetryCounter;
+    private final Counter registrationConfirmationFailedCounter;
     
     // User Management Metrics
     private final Counter userProfileUpdateCounter;
@@ -33,8 +45,21 @@ public class MetricsService {
     private final Counter addressUpdatedCounter;
     private final Counter addressDeletedCounter;
     private final Counter defaultAddressChangedCounter;
+    
+    // Password Hashing Metrics
+    private final Timer passwordHashQueueWaitTimer;
+    private final Timer passwordHashTimer;
+    private final Counter passwordHashRejectedCounter;
+    
+    // Token Validation Metrics
+    private final Counter jwksRefreshSuccessCounter;
+    private final Counter jwksRefreshFailureCounter;
+    private final Counter revocationBloomPositiveCounter;
+    private final Counter revokedTokenRejectedCounter;
 
     public MetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
         // Authentication Metrics
         this.loginSuccessCounter = Counter.builder("auth.login.success")
                 .description("Number of successful login attempts")
@@ -68,6 +93,20 @@ public class MetricsService {
                 .description("Number of token refresh requests")
                 .register(meterRegistry);
 
+        this.tokenRefreshUpstreamCounter = Counter.builder("auth.token.refresh.upstream")
+                .description("Number of token refreshes sent to Cognito")
+                .register(meterRegistry);
+
+        this.tokenRefreshCoalescedInFlightCounter = Counter.builder("auth.token.refresh.coalesced")
+                .description("Number of token refreshes served without a Cognito call")
+                .tag("source", "in-flight")
+                .register(meterRegistry);
+
+        this.tokenRefreshCoalescedRecentCounter = Counter.builder("auth.token.refresh.coalesced")
+                .description("Number of token refreshes served without a Cognito call")
+                .tag("source", "recent")
+                .register(meterRegistry);
+
         // Timing Metrics
         this.loginTimer = Timer.builder("auth.login.duration")
                 .description("Login request duration")
@@ -76,6 +115,18 @@ public class MetricsService {
         this.registrationTimer = Timer.builder("auth.registration.duration")
                 .description("Registration request duration")
                 .register(meterRegistry);
+
+        this.registrationCompensationCounter = Counter.builder("auth.registration.compensation")
+                .description("Number of Cognito users deleted to compensate a failed local registration")
+                .register(meterRegistry);
+
+        this.registrationConfirmationRetryCounter = Counter.builder("auth.registration.confirmation.retry")
+                .description("Number of scheduled sign-up confirmation retries")
+                .register(meterRegistry);
+
+        this.registrationConfirmationFailedCounter = Counter.builder("auth.registration.confirmation.failed")
+                .description("Number of sign-ups that exhausted their confirmation retries")
+                .register(meterRegistry);
         
         // User Management Metrics
         this.userProfileUpdateCounter = Counter.builder("user.profile.update")
@@ -106,6 +157,40 @@ public class MetricsService {
         this.defaultAddressChangedCounter = Counter.builder("address.default.changed")
                 .description("Number of default address changes")
                 .register(meterRegistry);
+        
+        // Password Hashing Metrics
+        this.passwordHashQueueWaitTimer = Timer.builder("password.hash.queue.wait")
+                .description("Time a password hash task waited for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        
+        this.passwordHashTimer = Timer.builder("password.hash.duration")
+                .description("CPU time spent computing a password hash")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        
+        this.passwordHashRejectedCounter = Counter.builder("password.hash.rejected")
+                .description("Number of password hash requests rejected because the hashing queue was full")
+                .register(meterRegistry);
+        
+        // Token Validation Metrics
+        this.jwksRefreshSuccessCounter = Counter.builder("auth.jwks.refresh")
+                .description("Number of JWK set refreshes")
+                .tag("status", "success")
+                .register(meterRegistry);
+        
+        this.jwksRefreshFailureCounter = Counter.builder("auth.jwks.refresh")
+                .description("Number of JWK set refreshes")
+                .tag("status", "failure")
+                .register(meterRegistry);
+        
+        this.revocationBloomPositiveCounter = Counter.builder("auth.revocation.bloom.positive")
+                .description("Number of token checks that fell through the Bloom filter to the exact revocation set")
+                .register(meterRegistry);
+        
+        this.revokedTokenRejectedCounter = Counter.builder("auth.revocation.rejected")
+                .description("Number of requests rejected because their token was revoked")
+                .register(meterRegistry);
     }
 
     // Authentication Methods
@@ -137,6 +222,18 @@ public class MetricsService {
         tokenRefreshCounter.increment();
     }
 
+    public void recordTokenRefreshUpstream() {
+        tokenRefreshUpstreamCounter.increment();
+    }
+
+    public void recordTokenRefreshCoalescedInFlight() {
+        tokenRefreshCoalescedInFlightCounter.increment();
+    }
+
+    public void recordTokenRefreshCoalescedRecent() {
+        tokenRefreshCoalescedRecentCounter.increment();
+    }
+
     public void recordLoginDuration(long durationMillis) {
         loginTimer.record(durationMillis, TimeUnit.MILLISECONDS);
     }
@@ -144,6 +241,18 @@ public class MetricsService {
     public void recordRegistrationDuration(long durationMillis) {
         registrationTimer.record(durationMillis, TimeUnit.MILLISECONDS);
     }
+
+    public void recordRegistrationCompensation() {
+        registrationCompensationCounter.increment();
+    }
+
+    public void recordRegistrationConfirmationRetry() {
+        registrationConfirmationRetryCounter.increment();
+    }
+
+    public void recordRegistrationConfirmationFailed() {
+        registrationConfirmationFailedCounter.increment();
+    }
     
     // User Management Methods
     public void recordUserProfileUpdate() {
@@ -163,6 +272,10 @@ public class MetricsService {
         addressCreatedCounter.increment();
     }
     
+    public void recordAddressesCreated(int count) {
+        addressCreatedCounter.increment(count);
+    }
+    
     public void recordAddressUpdated() {
         addressUpdatedCounter.increment();
     }
@@ -175,6 +288,129 @@ public class MetricsService {
         defaultAddressChangedCounter.increment();
     }
 
+    // Password Hashing Methods
+    public void recordPasswordHashQueueWait(long durationNanos) {
+        passwordHashQueueWaitTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordPasswordHash(long durationNanos) {
+        passwordHashTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordPasswordHashRejected() {
+        passwordHashRejectedCounter.increment();
+    }
+
+    // Token Validation Methods
+    public void recordJwksRefresh(boolean success) {
+        (success ? jwksRefreshSuccessCounter : jwksRefreshFailureCounter).increment();
+    }
+
+    public void recordRevocationBloomPositive() {
+        revocationBloomPositiveCounter.increment();
+    }
+
+    public void recordRevokedTokenRejected() {
+        revokedTokenRejectedCounter.increment();
+    }
+
+    // Rate Limiting Methods
+    public void recordRateLimitRejected(String endpoint, String reason) {
+        Counter.builder("auth.ratelimit.rejected")
+                .description("Number of auth requests rejected before reaching Cognito")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Cognito Resilience Methods
+    public void recordCircuitBreakerTransition(String category, String from, String to) {
+        Counter.builder("cognito.circuit.transitions")
+                .description("Number of Cognito circuit breaker state transitions")
+                .tag("category", category)
+                .tag("from", from)
+                .tag("to", to)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordCognitoCallRejected(String category, String reason) {
+        Counter.builder("cognito.calls.rejected")
+                .description("Number of Cognito calls failed fast by the resilience layer")
+                .tag("category", category)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordCognitoRetry(String category) {
+        Counter.builder("cognito.calls.retried")
+                .description("Number of Cognito calls retried after throttling")
+                .tag("category", category)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // User Profile Cache Methods
+    public void recordUserCacheInvalidation(String source) {
+        Counter.builder("user.cache.invalidations")
+                .description("Number of user profile cache invalidations")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordStatisticsDrift(String statistic, long delta) {
+        Counter.builder("admin.statistics.drift")
+                .description("Absolute corrections applied to user statistics counters by reconciliation")
+                .tag("statistic", statistic.startsWith("users.role.") ? "users.role" : statistic)
+                .register(meterRegistry)
+                .increment(Math.abs(delta));
+    }
+
+    // Export Methods
+    public void recordExportRows(String format, long rows) {
+        Counter.builder("admin.export.rows")
+                .description("Number of users written by admin exports")
+                .tag("format", format)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    public void recordAdminBatchItems(String operation, String status, long items) {
+        Counter.builder("admin.batch.items")
+                .description("Number of users processed by admin batch operations")
+                .tag("operation", operation)
+                .tag("status", status)
+                .register(meterRegistry)
+                .increment(items);
+    }
+
+    public void recordImportRows(String outcome, long rows) {
+        Counter.builder("admin.import.rows")
+                .description("Number of rows processed by admin bulk imports")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    /**
+     * Expose size, hit/miss and eviction statistics of a Caffeine cache
+     */
+    public void monitorCache(Cache<?, ?> cache, String cacheName) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+    }
+
+    /**
+     * Register a gauge whose value is sampled from the given supplier on each scrape
+     */
+    public void registerGauge(String name, String description, Supplier<Number> valueSupplier) {
+        Gauge.builder(name, valueSupplier)
+                .description(description)
+                .register(meterRegistry);
+    }
+
     public Timer.Sample startTimer() {
         return Timer.start();
     }
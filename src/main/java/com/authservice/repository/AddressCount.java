@@ -0,0 +1,7 @@
+package com.authservice.repository;
+
+/**
+ * Number of addresses of one user
+ */
+public record AddressCount(Long userId, long count) {
+}
@@ -0,0 +1,34 @@
+package com.authservice.repository;
+
+import com.authservice.model.PendingRegistration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PendingRegistrationRepository extends JpaRepository<PendingRegistration, Long> {
+    
+    Optional<PendingRegistration> findByUsername(String username);
+    
+    /**
+     * Claim up to limit due PENDING rows by moving their next attempt to leaseUntil and return
+     * their usernames. SKIP LOCKED lets concurrent sweeps split the due rows instead of waiting.
+     */
+    @Transactional
+    @Query(value = "UPDATE pending_registrations SET next_attempt_at = :leaseUntil " +
+            "WHERE id IN (SELECT id FROM pending_registrations " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING username", nativeQuery = true)
+    List<String> claimDue(@Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+                          @Param("limit") int limit);
+    
+    @Transactional
+    void deleteByUsername(String username);
+}
@@ -1,6 +1,6 @@
 package com.authservice.repository;
 
-import com.authservice.model.User;
+import com.authservice.dto.AddressDTO;
 import com.authservice.model.UserAddress;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -8,29 +8,56 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserAddressRepository extends JpaRepository<UserAddress, Long> {
     
-    List<UserAddress> findByUserOrderByIsDefaultDescCreatedAtDesc(User user);
-    
-    List<UserAddress> findByUserIdOrderByIsDefaultDescCreatedAtDesc(Long userId);
-    
     Optional<UserAddress> findByIdAndUserId(Long id, Long userId);
     
-    Optional<UserAddress> findByUserAndIsDefaultTrue(User user);
-    
-    int countByUserId(Long userId);
-    
-    @Modifying
-    @Query("UPDATE UserAddress a SET a.isDefault = false WHERE a.user = :user AND a.id != :excludeId")
-    void resetDefaultForUser(@Param("user") User user, @Param("excludeId") Long excludeId);
-    
-    @Modifying
-    @Query("UPDATE UserAddress a SET a.isDefault = false WHERE a.user = :user")
-    void resetAllDefaultForUser(@Param("user") User user);
+    // Read-only projections: a.user.id is the foreign key column, so no join and no proxy
+    
+    String ADDRESS_DTO_COLUMNS = "a.id, a.user.id, a.addressLine1, a.addressLine2, a.city, a.state, " +
+                                 "a.postalCode, a.country, a.isDefault, a.addressType, a.createdAt, a.updatedAt, " +
+                                 "a.version";
+    
+    @Query("SELECT new com.authservice.dto.AddressDTO(" + ADDRESS_DTO_COLUMNS + ") " +
+           "FROM UserAddress a WHERE a.user.id = :userId ORDER BY a.isDefault DESC, a.createdAt DESC")
+    List<AddressDTO> findViewsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.authservice.dto.AddressDTO(" + ADDRESS_DTO_COLUMNS + ") " +
+           "FROM UserAddress a WHERE a.id = :id AND a.user.id = :userId")
+    Optional<AddressDTO> findViewByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    @Query("SELECT new com.authservice.dto.AddressDTO(" + ADDRESS_DTO_COLUMNS + ") " +
+           "FROM UserAddress a WHERE a.user.id = :userId AND a.isDefault = true")
+    Optional<AddressDTO> findDefaultViewByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.authservice.repository.AddressCount(a.user.id, COUNT(a.id)) " +
+           "FROM UserAddress a WHERE a.user.id IN :userIds GROUP BY a.user.id")
+    List<AddressCount> countByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    /**
+     * Make the address the user's only default in one statement; returns 0 if it is not the user's.
+     * Every address of the user is rewritten so that a concurrent switch blocks on these rows and
+     * re-evaluates against this one's result. uq_user_addresses_one_default rejects anything that
+     * still slips through (e.g. a default inserted concurrently).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE user_addresses SET is_default = (id = :addressId), " +
+                   "version = version + CASE WHEN is_default IS DISTINCT FROM (id = :addressId) THEN 1 ELSE 0 END " +
+                   "WHERE user_id = :userId " +
+                   "AND EXISTS (SELECT 1 FROM user_addresses WHERE id = :addressId AND user_id = :userId)",
+           nativeQuery = true)
+    int switchDefault(@Param("userId") Long userId, @Param("addressId") Long addressId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE user_addresses SET is_default = FALSE, version = version + 1 " +
+                   "WHERE user_id = :userId AND is_default",
+           nativeQuery = true)
+    int clearDefault(@Param("userId") Long userId);
     
     boolean existsByIdAndUserId(Long id, Long userId);
 }
@@ -0,0 +1,7 @@
+package com.authservice.repository;
+
+/**
+ * The columns an admin batch change needs to report on and invalidate a user
+ */
+public record UserBatchTarget(Long id, String username, String role) {
+}
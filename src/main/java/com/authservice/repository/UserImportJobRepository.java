@@ -0,0 +1,97 @@
+package com.authservice.repository;
+
+import com.authservice.model.UserImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Import job state changes are single UPDATE statements guarded by the expected status,
+ * so two replicas can never both pick up the same job. Once a job runs, every write of its
+ * runner also has to match the run token it started with; a resumed job gets a new token,
+ * so a runner that only looked stale (long load, retry sleep) cannot overwrite the new run.
+ */
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJob, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.status = 'QUEUED', j.totalRows = :total, j.failedRows = :failed, " +
+            "j.stagedAt = CURRENT_TIMESTAMP, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'STAGING'")
+    int markStaged(@Param("id") Long id, @Param("total") long total, @Param("failed") long failed);
+
+    /**
+     * Queue a staged job again if it failed, or if its runner stopped heartbeating before staleBefore
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.status = 'QUEUED', j.runToken = NULL, j.lastError = NULL, " +
+            "j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.stagedAt IS NOT NULL AND (j.status = 'FAILED' " +
+            "OR (j.status IN ('QUEUED', 'RUNNING') AND j.updatedAt < :staleBefore))")
+    int requeue(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.status = 'RUNNING', j.runToken = :token, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int start(@Param("id") Long id, @Param("token") String token);
+
+    /**
+     * Keep a running job from looking stale while it is between checkpoints
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'RUNNING' AND j.runToken = :token")
+    int heartbeat(@Param("id") Long id, @Param("token") String token);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.loadedRows = :loaded, j.failedRows = j.failedRows + :failed, " +
+            "j.loadedAt = CURRENT_TIMESTAMP, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'RUNNING' AND j.runToken = :token")
+    int markLoaded(@Param("id") Long id, @Param("token") String token,
+                   @Param("loaded") long loaded, @Param("failed") long failed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.provisioningStartedAt = COALESCE(j.provisioningStartedAt, CURRENT_TIMESTAMP), " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.status = 'RUNNING' AND j.runToken = :token")
+    int markProvisioningStarted(@Param("id") Long id, @Param("token") String token);
+
+    /**
+     * Record one checkpoint
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.provisionedRows = j.provisionedRows + :provisioned, " +
+            "j.failedRows = j.failedRows + :failed, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'RUNNING' AND j.runToken = :token")
+    int addProgress(@Param("id") Long id, @Param("token") String token,
+                    @Param("provisioned") long provisioned, @Param("failed") long failed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.status = 'COMPLETED', j.completedAt = CURRENT_TIMESTAMP, " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.status = 'RUNNING' AND j.runToken = :token")
+    int complete(@Param("id") Long id, @Param("token") String token);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.status = 'FAILED', j.lastError = :error, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'RUNNING' AND j.runToken = :token")
+    int fail(@Param("id") Long id, @Param("token") String token, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserImportJob j SET j.status = 'FAILED', j.lastError = :error, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id AND j.status = 'STAGING'")
+    int failStaging(@Param("id") Long id, @Param("error") String error);
+}
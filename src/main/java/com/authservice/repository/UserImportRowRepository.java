@@ -0,0 +1,258 @@
+package com.authservice.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Staged rows of admin bulk imports (user_import_rows) and the set-based statements that
+ * turn them into users. Rows go in through the COPY protocol, which streams them in one
+ * round trip instead of one INSERT per row.
+ */
+@Repository
+public class UserImportRowRepository {
+
+    private static final String PENDING = "PENDING";
+    private static final String FAILED = "FAILED";
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    /** Must match the allocationSize of User's id generator (and INCREMENT BY of users_id_seq) */
+    private static final int ID_BLOCK = 50;
+
+    private static final String COPY_SQL = "COPY user_import_rows "
+            + "(job_id, line_no, username, email, first_name, last_name, phone, role, status, error) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * Insert the first row per username with ON CONFLICT DO NOTHING, which also skips emails
+     * repeated in the file or already taken, then link each inserted user to its staged row.
+     *
+     * Ids are taken the way Hibernate's pooled optimizer takes them for User (allocationSize
+     * ID_BLOCK): each nextval of users_id_seq covers the ID_BLOCK ids ending at the returned
+     * value, so one call per block is made instead of a whole block burned per row.
+     * Imported users get an unusable password_hash; Cognito owns their credentials.
+     */
+    private static final String LOAD_SQL = """
+            WITH candidates AS (
+                SELECT DISTINCT ON (username) line_no, username, email, first_name, last_name, phone, role
+                FROM user_import_rows
+                WHERE job_id = ? AND status = 'PENDING' AND user_id IS NULL
+                ORDER BY username, line_no
+            ), numbered AS (
+                SELECT candidates.*, row_number() OVER (ORDER BY line_no) - 1 AS n FROM candidates
+            ), blocks AS (
+                SELECT k, nextval('users_id_seq') AS hi
+                FROM generate_series(0, (SELECT (count(*) + %1$d - 1) / %1$d - 1 FROM candidates)) AS k
+            ), inserted AS (
+                INSERT INTO users (id, username, email, password_hash, first_name, last_name, phone, role)
+                SELECT blocks.hi - %1$d + 1 + numbered.n %% %1$d, username, email, '!',
+                       first_name, last_name, phone, role
+                FROM numbered JOIN blocks ON blocks.k = numbered.n / %1$d
+                ORDER BY line_no
+                ON CONFLICT DO NOTHING
+                RETURNING id, username
+            )
+            UPDATE user_import_rows r SET user_id = inserted.id
+            FROM inserted JOIN candidates USING (username)
+            WHERE r.job_id = ? AND r.line_no = candidates.line_no
+            """.formatted(ID_BLOCK);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserImportJobRepository jobRepository;
+
+    /**
+     * Stream the rows into user_import_rows; rows with an error are stored as FAILED.
+     * Nothing is visible until the whole upload has been read.
+     */
+    @Transactional
+    public StageCounts stage(Long jobId, Iterator<StagedRow> rows) throws SQLException {
+        // The transaction's connection, so the COPY commits or rolls back with markStaged
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        long total = 0;
+        long invalid = 0;
+        try {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+                while (rows.hasNext()) {
+                    StagedRow row = rows.next();
+                    appendCsv(buffer, row, jobId);
+                    total++;
+                    if (row.error() != null) {
+                        invalid++;
+                    }
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        writeToCopy(copy, buffer);
+                    }
+                }
+                writeToCopy(copy, buffer);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        jobRepository.markStaged(jobId, total, invalid);
+        return new StageCounts(total, invalid);
+    }
+
+    /**
+     * Insert the local users for every pending row in one statement. Rows that clash with an
+     * existing user (or an earlier row of the same file) are marked FAILED.
+     */
+    @Transactional
+    public LoadCounts load(Long jobId, String runToken) {
+        int loaded = jdbcTemplate.update(LOAD_SQL, jobId, jobId);
+        int duplicates = jdbcTemplate.update(
+                "UPDATE user_import_rows SET status = 'FAILED', error = 'Username or email already exists' "
+                        + "WHERE job_id = ? AND status = 'PENDING' AND user_id IS NULL", jobId);
+        if (jobRepository.markLoaded(jobId, runToken, loaded, duplicates) == 0) {
+            throw lostJob(jobId);
+        }
+        return new LoadCounts(loaded, duplicates);
+    }
+
+    /**
+     * Next page of rows still waiting for their Cognito user, in file order
+     */
+    public List<PendingRow> findPending(Long jobId, long afterLine, int limit) {
+        return jdbcTemplate.query(
+                "SELECT line_no, user_id, username, email, first_name, last_name, phone FROM user_import_rows "
+                        + "WHERE job_id = ? AND status = 'PENDING' AND line_no > ? ORDER BY line_no LIMIT ?",
+                (rs, i) -> new PendingRow(rs.getLong("line_no"), rs.getLong("user_id"), rs.getString("username"),
+                        rs.getString("email"), rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getString("phone")),
+                jobId, afterLine, limit);
+    }
+
+    /**
+     * Checkpoint a page of Cognito results: link provisioned users to their sub, remove the local
+     * users Cognito rejected, and add both to the job's counters, all in one transaction.
+     * Rows not in results stay PENDING and are picked up again on resume.
+     */
+    @Transactional
+    public void recordResults(Long jobId, String runToken, List<ProvisionResult> results) {
+        List<Object[]> provisioned = new ArrayList<>();
+        List<Object[]> subs = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        List<Object[]> deletions = new ArrayList<>();
+        for (ProvisionResult result : results) {
+            if (result.error() == null) {
+                provisioned.add(new Object[]{jobId, result.lineNo()});
+                if (result.cognitoSub() != null) {
+                    subs.add(new Object[]{result.cognitoSub(), result.userId()});
+                }
+            } else {
+                failed.add(new Object[]{truncate(result.error()), jobId, result.lineNo()});
+                deletions.add(new Object[]{result.userId()});
+            }
+        }
+        if (!provisioned.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE user_import_rows SET status = 'PROVISIONED' WHERE job_id = ? AND line_no = ?",
+                    provisioned);
+        }
+        if (!subs.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE users SET cognito_sub = ?, version = version + 1 WHERE id = ? AND cognito_sub IS NULL",
+                    subs);
+        }
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE user_import_rows SET status = 'FAILED', error = ?, user_id = NULL "
+                            + "WHERE job_id = ? AND line_no = ?", failed);
+            jdbcTemplate.batchUpdate("DELETE FROM users WHERE id = ?", deletions);
+        }
+        if (jobRepository.addProgress(jobId, runToken, provisioned.size(), failed.size()) == 0) {
+            throw lostJob(jobId);
+        }
+    }
+
+    /** The job was resumed under another run token; this runner's writes are rolled back */
+    private static OptimisticLockingFailureException lostJob(Long jobId) {
+        return new OptimisticLockingFailureException("Import job " + jobId + " is no longer run by this instance");
+    }
+
+    /**
+     * Failed rows in file order, for the job's error report
+     */
+    public List<FailedRow> findFailed(Long jobId, long afterLine, int limit) {
+        return jdbcTemplate.query(
+                "SELECT line_no, username, email, error FROM user_import_rows "
+                        + "WHERE job_id = ? AND status = 'FAILED' AND line_no > ? ORDER BY line_no LIMIT ?",
+                (rs, i) -> new FailedRow(rs.getLong("line_no"), rs.getString("username"), rs.getString("email"),
+                        rs.getString("error")),
+                jobId, afterLine, limit);
+    }
+
+    private static void appendCsv(StringBuilder buffer, StagedRow row, Long jobId) {
+        buffer.append(jobId).append(',').append(row.lineNo());
+        for (String value : new String[]{row.username(), row.email(), row.firstName(), row.lastName(),
+                row.phone(), row.role(), row.error() == null ? PENDING : FAILED, truncate(row.error())}) {
+            buffer.append(',');
+            // Unquoted empty is NULL in COPY csv; anything else is quoted so it is taken literally
+            if (value != null) {
+                buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        buffer.append('\n');
+    }
+
+    private static void writeToCopy(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    /** One uploaded row; error is set when it failed validation */
+    public record StagedRow(long lineNo, String username, String email, String firstName, String lastName,
+                            String phone, String role, String error) {
+    }
+
+    public record StageCounts(long total, long invalid) {
+    }
+
+    public record LoadCounts(long loaded, long duplicates) {
+    }
+
+    public record PendingRow(long lineNo, Long userId, String username, String email, String firstName,
+                             String lastName, String phone) {
+    }
+
+    /** Outcome of one AdminCreateUser call; error is null when the Cognito user exists */
+    public record ProvisionResult(long lineNo, Long userId, String cognitoSub, String error) {
+    }
+
+    public record FailedRow(long lineNo, String username, String email, String error) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.authservice.repository;
+
+import com.authservice.dto.AddressDTO;
+import com.authservice.dto.UserDTO;
+
+/**
+ * One row of the user LEFT JOIN addresses read behind the full profile views; the address
+ * has a null id when the user has none
+ */
+public record UserProfileRow(UserDTO user, long addressesVersion, AddressDTO address) {
+}
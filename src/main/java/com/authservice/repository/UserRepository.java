@@ -1,11 +1,26 @@
 package com.authservice.repository;
 
+import com.authservice.dto.AdminUserDTO;
+import com.authservice.dto.UserDTO;
+import com.authservice.dto.UserSuggestion;
 import com.authservice.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -18,7 +33,165 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
-    List<User> findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(String username, String email);
+    // Read-only projections: select just the DTO columns (never password_hash), so
+    // nothing is loaded into or dirty-checked by the persistence context
     
-    long countByRole(String role);
+    String USER_DTO_COLUMNS = "u.id, u.username, u.email, u.firstName, u.lastName, u.phone, u.role, " +
+                              "u.createdAt, u.updatedAt";
+    
+    @Query("SELECT new com.authservice.dto.UserDTO(" + USER_DTO_COLUMNS + ", u.version) " +
+           "FROM User u WHERE u.username = :username")
+    Optional<UserDTO> findProfileByUsername(@Param("username") String username);
+    
+    @Query("SELECT new com.authservice.dto.UserDTO(" + USER_DTO_COLUMNS + ", u.version) FROM User u WHERE u.id = :id")
+    Optional<UserDTO> findProfileById(@Param("id") Long id);
+    
+    /**
+     * The user and each of their addresses (or one row with no address), from a single LEFT JOIN
+     */
+    @Query("SELECT new com.authservice.repository.UserProfileRow(" +
+           "new com.authservice.dto.UserDTO(" + USER_DTO_COLUMNS + ", u.version), u.addressesVersion, " +
+           "new com.authservice.dto.AddressDTO(" + UserAddressRepository.ADDRESS_DTO_COLUMNS + ")) " +
+           "FROM User u LEFT JOIN UserAddress a ON a.user = u WHERE u.id = :id " +
+           "ORDER BY a.isDefault DESC, a.createdAt DESC")
+    List<UserProfileRow> findProfileRowsById(@Param("id") Long id);
+    
+    /**
+     * The version columns alone, for answering conditional requests without loading the resource
+     */
+    @Query("SELECT new com.authservice.repository.UserVersions(u.version, u.addressesVersion) " +
+           "FROM User u WHERE u.id = :id")
+    Optional<UserVersions> findVersionsById(@Param("id") Long id);
+    
+    /**
+     * Every user with its address count, in a single grouped query
+     */
+    @Query("SELECT new com.authservice.dto.AdminUserDTO(" + USER_DTO_COLUMNS + ", CAST(COUNT(a.id) AS Integer)) " +
+           "FROM User u LEFT JOIN UserAddress a ON a.user = u GROUP BY u.id ORDER BY u.id")
+    List<AdminUserDTO> findAllAdminViews();
+    
+    @Query("SELECT new com.authservice.dto.AdminUserDTO(" + USER_DTO_COLUMNS + ", CAST(COUNT(a.id) AS Integer)) " +
+           "FROM User u LEFT JOIN UserAddress a ON a.user = u WHERE u.id IN :ids GROUP BY u.id")
+    List<AdminUserDTO> findAdminViewsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.authservice.dto.AdminUserDTO(" + USER_DTO_COLUMNS + ", CAST(COUNT(a.id) AS Integer)) " +
+           "FROM User u LEFT JOIN UserAddress a ON a.user = u WHERE u.id = :id GROUP BY u.id")
+    Optional<AdminUserDTO> findAdminViewById(@Param("id") Long id);
+    
+    /**
+     * Ids of the best substring matches over username, email and full name, best first.
+     * The pattern must already be lowercased, LIKE-escaped and wrapped in %;
+     * the LIKE predicates are served by the pg_trgm GIN indexes in 01-init.sql.
+     */
+    @Query(value = "SELECT id FROM users " +
+                   "WHERE lower(username) LIKE :pattern OR lower(email) LIKE :pattern " +
+                   "OR lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')) LIKE :pattern " +
+                   "ORDER BY lower(username) = :query DESC, lower(email) = :query DESC, " +
+                   "greatest(similarity(lower(username), :query), similarity(lower(email), :query), " +
+                   "similarity(lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')), :query)) DESC, " +
+                   "id LIMIT :limit", nativeQuery = true)
+    List<Long> searchIdsBySubstring(@Param("query") String query, @Param("pattern") String pattern,
+                                    @Param("limit") int limit);
+    
+    @Query("SELECT new com.authservice.repository.UserWithAddressCount(u, COUNT(a.id)) " +
+           "FROM User u LEFT JOIN UserAddress a ON a.user = u WHERE u.id = :id GROUP BY u")
+    Optional<UserWithAddressCount> findWithAddressCountById(@Param("id") Long id);
+    
+    // Keyset pages: row-value comparisons are served by range scans on
+    // idx_users_created_at_id and the username index, so deep pages cost the same as the first
+    
+    @Query(value = "SELECT * FROM users ORDER BY created_at, id LIMIT :limit", nativeQuery = true)
+    List<User> findFirstPageByCreatedAt(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users WHERE (created_at, id) > (:createdAt, :id) " +
+                   "ORDER BY created_at, id LIMIT :limit", nativeQuery = true)
+    List<User> findPageByCreatedAtAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                        @Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<User> findFirstPageByCreatedAtDesc(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users WHERE (created_at, id) < (:createdAt, :id) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<User> findPageByCreatedAtBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                         @Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users ORDER BY username LIMIT :limit", nativeQuery = true)
+    List<User> findFirstPageByUsername(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users WHERE username > :username ORDER BY username LIMIT :limit",
+           nativeQuery = true)
+    List<User> findPageByUsernameAfter(@Param("username") String username, @Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users ORDER BY username DESC LIMIT :limit", nativeQuery = true)
+    List<User> findFirstPageByUsernameDesc(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM users WHERE username < :username ORDER BY username DESC LIMIT :limit",
+           nativeQuery = true)
+    List<User> findPageByUsernameBefore(@Param("username") String username, @Param("limit") int limit);
+    
+    // Export streams: forward-only cursors fetched EXPORT_FETCH_SIZE rows at a time
+    // (Postgres only honours the fetch size inside a transaction)
+    
+    String EXPORT_FETCH_SIZE = "1000";
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderById();
+    
+    /**
+     * Users with their addresses as (User, UserAddress or null) rows, grouped by user
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u, a FROM User u LEFT JOIN UserAddress a ON a.user = u ORDER BY u.id, a.id")
+    Stream<Object[]> streamAllWithAddressesOrderById();
+    
+    /**
+     * Id, username and email of every user, for building the suggestion index
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.authservice.dto.UserSuggestion(u.id, u.username, u.email) FROM User u")
+    Stream<UserSuggestion> streamAllSuggestions();
+    
+    @Query("SELECT u.id FROM User u WHERE u.cognitoSub = :sub")
+    Optional<Long> findIdByCognitoSub(@Param("sub") String sub);
+    
+    /**
+     * Link a row to its Cognito sub, only if it is not linked yet
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED User u SET u.cognitoSub = :sub WHERE u.id = :id AND u.cognitoSub IS NULL")
+    int assignCognitoSub(@Param("id") Long id, @Param("sub") String sub);
+    
+    /**
+     * Id, username and role of the given users, row-locked until the batch transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.authservice.repository.UserBatchTarget(u.id, u.username, u.role) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<UserBatchTarget> findBatchTargetsForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED User u SET u.role = :role, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id IN :ids")
+    int updateRoleByIds(@Param("ids") Collection<Long> ids, @Param("role") String role);
+    
+    /**
+     * Addresses and pending registrations go with the users through ON DELETE CASCADE
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
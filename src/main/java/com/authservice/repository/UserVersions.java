@@ -0,0 +1,7 @@
+package com.authservice.repository;
+
+/**
+ * A user's row version and the version of its address list, which the ETags are built from
+ */
+public record UserVersions(long version, long addressesVersion) {
+}
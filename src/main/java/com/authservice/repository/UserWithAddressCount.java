@@ -0,0 +1,9 @@
+package com.authservice.repository;
+
+import com.authservice.model.User;
+
+/**
+ * A user together with its number of addresses, loaded in one grouped query
+ */
+public record UserWithAddressCount(User user, long addressCount) {
+}
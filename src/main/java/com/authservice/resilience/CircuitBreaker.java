@@ -0,0 +1,146 @@
+package com.authservice.resilience;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED: outcomes of the last windowSize calls are recorded; once at least
+ * minimumCalls are in the window and the failure rate reaches the threshold,
+ * the breaker opens. OPEN: calls are rejected until openDurationMillis has
+ * passed. HALF_OPEN: up to halfOpenPermits trial calls are let through; all
+ * succeeding closes the breaker, any failure opens it again.
+ *
+ * Every transition starts a new generation, and a permit carries the generation
+ * it was granted in. Outcomes of calls that outlived their generation (e.g. a
+ * slow CLOSED call finishing during HALF_OPEN) say nothing about the trial and
+ * are dropped.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Returned by tryAcquirePermission when the call must not proceed */
+    public static final long NO_PERMISSION = -1;
+
+    public interface TransitionListener {
+        void onTransition(State from, State to);
+    }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenPermits;
+    private final TransitionListener listener;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAtMillis;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMillis, int halfOpenPermits, TransitionListener listener) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenPermits = Math.max(1, halfOpenPermits);
+        this.listener = listener;
+    }
+
+    /**
+     * A permit for the call, or NO_PERMISSION; every permit must be handed back to exactly one
+     * of onSuccess, onFailure or onIgnored
+     */
+    public synchronized long tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMillis < openDurationMillis) {
+                return NO_PERMISSION;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSuccesses >= halfOpenPermits) {
+                return NO_PERMISSION;
+            }
+            halfOpenInFlight++;
+        }
+        return generation;
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= halfOpenPermits) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * A permitted call that ended without telling us anything about Cognito's health
+     */
+    public synchronized void onIgnored(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        generation++;
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+        if (next == State.OPEN) {
+            openedAtMillis = System.currentTimeMillis();
+        }
+        listener.onTransition(previous, next);
+    }
+}
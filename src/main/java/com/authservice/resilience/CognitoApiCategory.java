@@ -0,0 +1,19 @@
+package com.authservice.resilience;
+
+/**
+ * Cognito request-rate quota categories.
+ * Operations in the same category share a Cognito quota, so they also share
+ * a bulkhead and circuit breaker here.
+ */
+public enum CognitoApiCategory {
+    /** InitiateAuth (password and refresh flows), GlobalSignOut */
+    USER_AUTHENTICATION,
+    /** SignUp, AdminConfirmSignUp, AdminCreateUser */
+    USER_CREATION,
+    /** ForgotPassword, ConfirmForgotPassword */
+    ACCOUNT_RECOVERY,
+    /** ChangePassword, AdminDeleteUser */
+    USER_UPDATE,
+    /** AdminGetUser */
+    USER_READ
+}
@@ -0,0 +1,177 @@
+package com.authservice.resilience;
+
+import com.authservice.config.CognitoResilienceProperties;
+import com.authservice.exception.ServiceUnavailableException;
+import com.authservice.observability.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer around every Cognito call.
+ *
+ * Calls are isolated per Cognito quota category: each category has its own
+ * concurrency bulkhead and circuit breaker, so a throttled or slow category
+ * cannot exhaust capacity for the others. Throttling errors are retried with
+ * full-jitter backoff, drawing from a service-wide retry budget. Rejected
+ * calls fail fast with ServiceUnavailableException (503).
+ *
+ * Only Cognito-side trouble (5xx, throttling, timeouts, connection errors)
+ * counts against the breaker; user errors such as a wrong password do not.
+ */
+@Component
+public class CognitoResilience {
+
+    private static final Logger logger = LoggerFactory.getLogger(CognitoResilience.class);
+
+    private final CognitoResilienceProperties properties;
+    private final MetricsService metricsService;
+    private final Executor retryExecutor;
+    private final Map<CognitoApiCategory, Semaphore> bulkheads = new EnumMap<>(CognitoApiCategory.class);
+    private final Map<CognitoApiCategory, CircuitBreaker> breakers = new EnumMap<>(CognitoApiCategory.class);
+    private final RetryBudget retryBudget;
+
+    public CognitoResilience(CognitoResilienceProperties properties,
+                             MetricsService metricsService,
+                             @Qualifier("cognitoCompletionExecutor") ExecutorService cognitoCompletionExecutor) {
+        this.properties = properties;
+        this.metricsService = metricsService;
+        this.retryExecutor = cognitoCompletionExecutor;
+
+        CognitoResilienceProperties.CircuitBreakerSettings cb = properties.getCircuitBreaker();
+        for (CognitoApiCategory category : CognitoApiCategory.values()) {
+            int permits = properties.getBulkheads().getOrDefault(category, properties.getDefaultBulkhead());
+            Semaphore bulkhead = new Semaphore(permits);
+            bulkheads.put(category, bulkhead);
+
+            CircuitBreaker breaker = new CircuitBreaker(
+                    cb.getWindowSize(), cb.getMinimumCalls(), cb.getFailureRateThreshold(),
+                    cb.getOpenDurationMillis(), cb.getHalfOpenPermits(),
+                    (from, to) -> {
+                        logger.warn("Cognito circuit breaker for {} moved from {} to {}", category, from, to);
+                        metricsService.recordCircuitBreakerTransition(category.name(), from.name(), to.name());
+                    });
+            breakers.put(category, breaker);
+
+            metricsService.registerGauge("cognito.bulkhead.available." + category.name().toLowerCase(),
+                    "Free bulkhead permits for the Cognito quota category",
+                    bulkhead::availablePermits);
+            metricsService.registerGauge("cognito.circuit.state." + category.name().toLowerCase(),
+                    "Circuit breaker state (0 closed, 1 half-open, 2 open)",
+                    () -> switch (breaker.getState()) {
+                        case CLOSED -> 0;
+                        case HALF_OPEN -> 1;
+                        case OPEN -> 2;
+                    });
+        }
+
+        CognitoResilienceProperties.RetrySettings retry = properties.getRetry();
+        this.retryBudget = new RetryBudget(retry.getBudgetRatio(), retry.getBudgetMaxTokens(),
+                retry.getBudgetMinRetriesPerSecond());
+        metricsService.registerGauge("cognito.retry.budget.available",
+                "Retries currently available in the global retry budget",
+                retryBudget::getAvailable);
+    }
+
+    /**
+     * Run a Cognito call through the category's breaker and bulkhead, retrying throttling
+     */
+    public <T> CompletableFuture<T> execute(CognitoApiCategory category, String operation,
+                                            Supplier<CompletableFuture<T>> call) {
+        retryBudget.onFirstAttempt();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(category, operation, call, 1, result);
+        return result;
+    }
+
+    private <T> void attempt(CognitoApiCategory category, String operation,
+                             Supplier<CompletableFuture<T>> call, int attemptNumber,
+                             CompletableFuture<T> result) {
+        CircuitBreaker breaker = breakers.get(category);
+        long permit = breaker.tryAcquirePermission();
+        if (permit == CircuitBreaker.NO_PERMISSION) {
+            metricsService.recordCognitoCallRejected(category.name(), "circuit-open");
+            result.completeExceptionally(new ServiceUnavailableException(
+                    "Authentication provider is temporarily unavailable, please retry shortly"));
+            return;
+        }
+
+        Semaphore bulkhead = bulkheads.get(category);
+        if (!bulkhead.tryAcquire()) {
+            breaker.onIgnored(permit);
+            metricsService.recordCognitoCallRejected(category.name(), "bulkhead-full");
+            result.completeExceptionally(new ServiceUnavailableException(
+                    "Authentication provider is busy, please retry shortly"));
+            return;
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((value, ex) -> {
+            bulkhead.release();
+            if (ex == null) {
+                breaker.onSuccess(permit);
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (isCognitoFailure(cause)) {
+                breaker.onFailure(permit);
+            } else {
+                breaker.onIgnored(permit);
+            }
+
+            if (isThrottling(cause) && attemptNumber < properties.getRetry().getMaxAttempts()) {
+                if (retryBudget.tryWithdraw()) {
+                    long delay = backoffMillis(attemptNumber);
+                    metricsService.recordCognitoRetry(category.name());
+                    logger.debug("Cognito {} throttled, retry {} in {}ms", operation, attemptNumber, delay);
+                    CompletableFuture.runAsync(
+                            () -> attempt(category, operation, call, attemptNumber + 1, result),
+                            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, retryExecutor));
+                    return;
+                }
+                metricsService.recordCognitoCallRejected(category.name(), "retry-budget-exhausted");
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    private long backoffMillis(int attemptNumber) {
+        CognitoResilienceProperties.RetrySettings retry = properties.getRetry();
+        long cap = Math.min(retry.getMaxDelayMillis(), retry.getBaseDelayMillis() << Math.min(attemptNumber, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static boolean isThrottling(Throwable cause) {
+        return cause instanceof AwsServiceException serviceException && serviceException.isThrottlingException();
+    }
+
+    private static boolean isCognitoFailure(Throwable cause) {
+        if (cause instanceof AwsServiceException serviceException) {
+            return serviceException.isThrottlingException() || serviceException.statusCode() >= 500;
+        }
+        // Timeouts and connection failures
+        return cause instanceof SdkClientException;
+    }
+}
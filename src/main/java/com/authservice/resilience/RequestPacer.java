@@ -0,0 +1,37 @@
+package com.authservice.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces calls evenly at a fixed rate, for background work that must stay under a
+ * Cognito quota without bursting into the bulkhead shared with interactive traffic.
+ *
+ * Each caller reserves the next free slot and sleeps until it arrives; slots are not
+ * banked while idle, so a pause is never followed by a burst.
+ */
+public class RequestPacer {
+
+    private final long intervalNanos;
+
+    private long nextSlotNanos = System.nanoTime();
+
+    public RequestPacer(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSlotNanos);
+            nextSlotNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.authservice.resilience;
+
+/**
+ * Global budget that caps retries to a fraction of first attempts.
+ *
+ * Every first attempt deposits ratio tokens (up to maxTokens) and every retry
+ * withdraws one, with a small per-second floor so low traffic can still retry.
+ * When Cognito throttles everyone at once the budget drains and the service
+ * stops amplifying load instead of retrying each call.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private final double minRetriesPerSecond;
+
+    private double tokens;
+    private long lastFloorRefillMillis = System.currentTimeMillis();
+
+    public RetryBudget(double ratio, double maxTokens, double minRetriesPerSecond) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized void onFirstAttempt() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        long now = System.currentTimeMillis();
+        double floor = (now - lastFloorRefillMillis) / 1000.0 * minRetriesPerSecond;
+        tokens = Math.min(maxTokens, tokens + floor);
+        lastFloorRefillMillis = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double getAvailable() {
+        return tokens;
+    }
+}
@@ -0,0 +1,231 @@
+package com.authservice.security;
+
+import com.authservice.config.RateLimitProperties;
+import com.authservice.exception.TooManyRequestsException;
+import com.authservice.observability.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory rate limiter for the Cognito-bound auth endpoints.
+ *
+ * Token buckets are kept per endpoint and per username / client IP, and
+ * spread over lock-striped shards so unrelated keys never contend on the same
+ * lock. Repeated invalid-credential failures for a username additionally put
+ * it into an exponentially growing lockout. Rejections happen before any
+ * Cognito call is made.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiter.class);
+
+    private final RateLimitProperties properties;
+    private final MetricsService metricsService;
+    private final Stripe[] stripes;
+
+    public AuthRateLimiter(RateLimitProperties properties, MetricsService metricsService) {
+        this.properties = properties;
+        this.metricsService = metricsService;
+        this.stripes = new Stripe[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Consume one attempt for the endpoint, or throw TooManyRequestsException.
+     * Either key may be null when the endpoint has no such dimension.
+     */
+    public void acquire(String endpoint, String username, String clientIp) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        String user = normalize(username);
+        if (user != null) {
+            long lockedForMillis = remainingLockoutMillis(user);
+            if (lockedForMillis > 0) {
+                reject(endpoint, "lockout", lockedForMillis);
+            }
+        }
+
+        RateLimitProperties.EndpointBudget budget = properties.getEndpoints().get(endpoint);
+        if (budget == null) {
+            return;
+        }
+        if (clientIp != null && budget.getPerIp() != null) {
+            tryConsume(endpoint, endpoint + "|ip|" + clientIp, budget.getPerIp());
+        }
+        if (user != null && budget.getPerUser() != null) {
+            tryConsume(endpoint, endpoint + "|user|" + user, budget.getPerUser());
+        }
+    }
+
+    /**
+     * Count a rejected password; past the threshold each failure doubles the lockout
+     */
+    public void recordInvalidCredentials(String username) {
+        String user = normalize(username);
+        if (user == null) {
+            return;
+        }
+        RateLimitProperties.Lockout lockout = properties.getLockout();
+        Stripe stripe = stripeFor(user);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            LockoutState state = stripe.lockouts.computeIfAbsent(user, k -> new LockoutState(now));
+            if (now - state.lastFailureNanos > TimeUnit.MILLISECONDS.toNanos(lockout.getResetAfterMillis())) {
+                state.failures = 0;
+            }
+            state.failures++;
+            state.lastFailureNanos = now;
+
+            int excess = state.failures - lockout.getThreshold();
+            if (excess >= 0) {
+                long durationMillis = Math.min(lockout.getMaxMillis(),
+                        lockout.getBaseMillis() << Math.min(excess, 30));
+                state.lockedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+                logger.warn("Locking out user {} for {}ms after {} failed logins", username, durationMillis, state.failures);
+            }
+        }
+    }
+
+    /**
+     * A successful login clears the failure streak
+     */
+    public void recordSuccess(String username) {
+        String user = normalize(username);
+        if (user == null) {
+            return;
+        }
+        Stripe stripe = stripeFor(user);
+        synchronized (stripe) {
+            stripe.lockouts.remove(user);
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely and lockouts that have lapsed
+     */
+    @Scheduled(fixedDelayString = "${security.rate-limit.cleanup-interval:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long resetAfterNanos = TimeUnit.MILLISECONDS.toNanos(properties.getLockout().getResetAfterMillis());
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.buckets.values().removeIf(bucket -> bucket.isFull(now));
+                stripe.lockouts.values().removeIf(state ->
+                        now - state.lastFailureNanos > resetAfterNanos && now >= state.lockedUntilNanos);
+            }
+        }
+    }
+
+    private long remainingLockoutMillis(String user) {
+        Stripe stripe = stripeFor(user);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            LockoutState state = stripe.lockouts.get(user);
+            if (state == null || now >= state.lockedUntilNanos) {
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis(state.lockedUntilNanos - now);
+        }
+    }
+
+    private void tryConsume(String endpoint, String key, RateLimitProperties.Bucket limit) {
+        Stripe stripe = stripeFor(key);
+        long now = System.nanoTime();
+        long waitMillis;
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.buckets.computeIfAbsent(key,
+                    k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerMinute(), now));
+            waitMillis = bucket.tryConsume(now);
+        }
+        if (waitMillis > 0) {
+            reject(endpoint, "rate", waitMillis);
+        }
+    }
+
+    private void reject(String endpoint, String reason, long waitMillis) {
+        metricsService.recordRateLimitRejected(endpoint, reason);
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999));
+        throw new TooManyRequestsException("Too many attempts, please retry later", retryAfterSeconds);
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private static String normalize(String username) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Stripe {
+        final Map<String, TokenBucket> buckets = new HashMap<>();
+        final Map<String, LockoutState> lockouts = new HashMap<>();
+    }
+
+    private static class LockoutState {
+        int failures;
+        long lastFailureNanos;
+        long lockedUntilNanos;
+
+        LockoutState(long now) {
+            this.lastFailureNanos = now;
+            this.lockedUntilNanos = now;
+        }
+    }
+
+    /**
+     * Classic token bucket; callers hold the stripe lock
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+        }
+
+        /**
+         * Take a token, returning 0 on success or the wait in millis until one is available
+         */
+        long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            if (refillPerNano <= 0) {
+                return TimeUnit.MINUTES.toMillis(1);
+            }
+            return TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((1 - tokens) / refillPerNano)) + 1;
+        }
+
+        boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.authservice.security;
+
+/**
+ * Local identity of the caller, resolved from the Cognito sub once per request.
+ * Controllers receive it as a handler method parameter.
+ */
+public record AuthenticatedUser(Long userId, String username, String sub) {
+}
@@ -0,0 +1,33 @@
+package com.authservice.security;
+
+import com.authservice.exception.ResourceNotFoundException;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies AuthenticatedUser handler parameters from the current authentication.
+ * A valid token without a local user row is reported as 404, like a missing profile.
+ */
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof CognitoAuthenticationToken token && token.getUser() != null) {
+            return token.getUser();
+        }
+        String name = authentication != null ? authentication.getName() : null;
+        throw new ResourceNotFoundException("User not found: " + name);
+    }
+}
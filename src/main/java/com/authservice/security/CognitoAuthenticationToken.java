@@ -0,0 +1,29 @@
+package com.authservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JWT authentication carrying the caller's local user, when one exists.
+ * The name is the Cognito username rather than the sub.
+ */
+public class CognitoAuthenticationToken extends JwtAuthenticationToken {
+
+    private final AuthenticatedUser user;
+
+    public CognitoAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities,
+                                      String username, AuthenticatedUser user) {
+        super(jwt, authorities, username);
+        this.user = user;
+    }
+
+    /**
+     * The local user, or null if the Cognito identity has no users row
+     */
+    public AuthenticatedUser getUser() {
+        return user;
+    }
+}
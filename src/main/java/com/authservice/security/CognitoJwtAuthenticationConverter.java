@@ -0,0 +1,34 @@
+package com.authservice.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+
+/**
+ * Builds the request's authentication from a Cognito JWT, resolving the
+ * local user from the sub once so handlers never look it up again
+ */
+public class CognitoJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final UserPrincipalResolver principalResolver;
+    private final Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+
+    public CognitoJwtAuthenticationConverter(UserPrincipalResolver principalResolver,
+                                             Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter) {
+        this.principalResolver = principalResolver;
+        this.authoritiesConverter = authoritiesConverter;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        AuthenticatedUser user = principalResolver.resolve(jwt).orElse(null);
+        String name = user != null ? user.username() : UserPrincipalResolver.usernameClaim(jwt);
+        if (name == null) {
+            name = jwt.getSubject();
+        }
+        return new CognitoAuthenticationToken(jwt, authoritiesConverter.convert(jwt), name, user);
+    }
+}
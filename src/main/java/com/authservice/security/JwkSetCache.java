@@ -0,0 +1,146 @@
+package com.authservice.security;
+
+import com.authservice.config.AwsCognitoConfig;
+import com.authservice.observability.MetricsService;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * JWK set source for Cognito that never fetches on the request path in the
+ * steady state.
+ *
+ * The key set is loaded eagerly at startup (from a persisted local copy first,
+ * if configured, then from Cognito) and refreshed in the background well
+ * before it would go stale. Only a token signed with an unknown key id
+ * triggers an inline refresh, and at most once per minimum refresh gap, so key
+ * rotation is picked up without letting bad tokens hammer the JWKS endpoint.
+ */
+@Component
+public class JwkSetCache implements JWKSource<SecurityContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwkSetCache.class);
+
+    @Autowired
+    private AwsCognitoConfig cognitoConfig;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${aws.cognito.jwks.cache-file:}")
+    private String cacheFile;
+
+    @Value("${aws.cognito.jwks.connect-timeout:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${aws.cognito.jwks.read-timeout:2000}")
+    private int readTimeoutMillis;
+
+    @Value("${aws.cognito.jwks.min-refresh-gap:30000}")
+    private long minRefreshGapMillis;
+
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile long lastRefreshAttemptMillis;
+
+    @PostConstruct
+    public void warmUp() {
+        loadPersistedCopy();
+        refresh();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        List<JWK> matches = jwkSelector.select(jwkSet);
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+
+        // Unknown key id: the pool may have rotated its keys since the last refresh
+        synchronized (this) {
+            matches = jwkSelector.select(jwkSet);
+            if (matches.isEmpty()
+                    && System.currentTimeMillis() - lastRefreshAttemptMillis >= minRefreshGapMillis) {
+                refresh();
+                matches = jwkSelector.select(jwkSet);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Background refresh, scheduled well inside the key set's useful lifetime
+     */
+    @Scheduled(initialDelayString = "${aws.cognito.jwks.refresh-interval:300000}",
+            fixedDelayString = "${aws.cognito.jwks.refresh-interval:300000}")
+    public synchronized void refresh() {
+        lastRefreshAttemptMillis = System.currentTimeMillis();
+        String jwkSetUri = cognitoConfig.getJwkSetUri();
+        if (jwkSetUri == null || jwkSetUri.isEmpty()) {
+            logger.warn("No JWK set URI configured; JWT validation will fail until one is set");
+            return;
+        }
+
+        try {
+            JWKSet fetched = JWKSet.load(new URL(jwkSetUri), connectTimeoutMillis, readTimeoutMillis, 0);
+            jwkSet = fetched;
+            metricsService.recordJwksRefresh(true);
+            logger.info("Loaded {} signing keys from {}", fetched.getKeys().size(), jwkSetUri);
+            persist(fetched);
+        } catch (IOException | ParseException e) {
+            // Keep serving the last known keys; Cognito keys rotate rarely
+            metricsService.recordJwksRefresh(false);
+            logger.warn("Could not refresh JWK set from {}, keeping {} cached keys",
+                    jwkSetUri, jwkSet.getKeys().size(), e);
+        }
+    }
+
+    private void loadPersistedCopy() {
+        if (cacheFile == null || cacheFile.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(cacheFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            jwkSet = JWKSet.parse(Files.readString(path, StandardCharsets.UTF_8));
+            logger.info("Loaded {} signing keys from local copy {}", jwkSet.getKeys().size(), path);
+        } catch (IOException | ParseException e) {
+            logger.warn("Ignoring unreadable JWK set copy {}", path, e);
+        }
+    }
+
+    private void persist(JWKSet fetched) {
+        if (cacheFile == null || cacheFile.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(cacheFile);
+        try {
+            Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), "jwks", ".tmp");
+            // Only public key material is written
+            Files.writeString(tmp, fetched.toString(true), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not persist JWK set to {}", path, e);
+        }
+    }
+}
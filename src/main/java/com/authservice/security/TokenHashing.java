@@ -0,0 +1,29 @@
+package com.authservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Hashing of bearer/refresh tokens for use as cache keys, so raw tokens are
+ * never kept in memory longer than the request that carried them.
+ */
+public final class TokenHashing {
+
+    private TokenHashing() {
+    }
+
+    public static String sha256(String token) {
+        return Base64.getEncoder().withoutPadding().encodeToString(sha256Bytes(token));
+    }
+
+    public static byte[] sha256Bytes(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return digest.digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
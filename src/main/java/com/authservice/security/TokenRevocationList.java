@@ -0,0 +1,159 @@
+package com.authservice.security;
+
+import com.authservice.observability.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local list of users whose already-issued tokens must no longer be accepted.
+ *
+ * Cognito's GlobalSignOut does not invalidate id tokens that were already
+ * handed out, so on logout and password change the user's subject is recorded
+ * here with the revocation time; any token for that subject issued before it
+ * is rejected until it would have expired anyway. The token presented at logout
+ * or password change is also revoked by its hash, since it may carry the same
+ * (whole) second as the revocation.
+ *
+ * The common case (subject never revoked) is answered by a Bloom filter with
+ * one digest and a few bit probes. Only Bloom positives consult the exact maps;
+ * a revoked token's subject is always revoked with it, so the subject filter
+ * covers both.
+ * Two filter generations are rotated once per maximum token lifetime, so a
+ * revocation stays in the filter for at least that long without the filter
+ * growing forever.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final MetricsService metricsService;
+    private final Duration maxTokenLifetime;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+    /** Token hash to the token's own expiry */
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private volatile BloomFilter currentFilter;
+    private volatile BloomFilter previousFilter;
+
+    public TokenRevocationList(
+            MetricsService metricsService,
+            @Value("${security.revocation.max-token-lifetime:3600000}") long maxTokenLifetimeMillis,
+            @Value("${security.revocation.expected-revocations:100000}") long expectedRevocations,
+            @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.metricsService = metricsService;
+        this.maxTokenLifetime = Duration.ofMillis(maxTokenLifetimeMillis);
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.currentFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.previousFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+
+        metricsService.registerGauge("auth.revocation.entries",
+                "Number of subjects with revoked tokens",
+                revocations::size);
+        metricsService.registerGauge("auth.revocation.tokens",
+                "Number of individually revoked tokens",
+                revokedTokens::size);
+        metricsService.registerGauge("auth.revocation.bloom.bytes",
+                "Memory used by the revocation Bloom filters",
+                () -> currentFilter.sizeInBytes() + previousFilter.sizeInBytes());
+    }
+
+    /**
+     * Revoke the presented token itself, and every token for its subject issued before the
+     * current second
+     */
+    public void revoke(Jwt presented) {
+        if (presented == null || presented.getSubject() == null) {
+            return;
+        }
+        Instant expiresAt = presented.getExpiresAt() != null
+                ? presented.getExpiresAt()
+                : Instant.now().plus(maxTokenLifetime);
+        // Recorded before the subject reaches the Bloom filter, which gates the lookup
+        revokedTokens.put(TokenHashing.sha256(presented.getTokenValue()), expiresAt);
+        revokeSubject(presented.getSubject());
+    }
+
+    /**
+     * Revoke every token for the given subject issued before the current second
+     */
+    public void revokeSubject(String subject) {
+        if (subject == null) {
+            return;
+        }
+        // iat has whole-second precision; a token carrying the revocation second may have
+        // been issued just after it (the re-login that follows a password change), so only
+        // earlier seconds are revoked
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        revocations.put(subject, new Revocation(now, now.plus(maxTokenLifetime)));
+        currentFilter.add(TokenHashing.sha256Bytes(subject));
+        logger.info("Revoked tokens issued before {} for subject {}", now, subject);
+    }
+
+    /**
+     * Whether the token was issued before its subject's revocation, or was revoked itself
+     */
+    public boolean isRevoked(Jwt jwt) {
+        String subject = jwt.getSubject();
+        if (subject == null) {
+            return false;
+        }
+
+        byte[] digest = TokenHashing.sha256Bytes(subject);
+        if (!currentFilter.mightContain(digest) && !previousFilter.mightContain(digest)) {
+            return false;
+        }
+
+        metricsService.recordRevocationBloomPositive();
+        Revocation revocation = revocations.get(subject);
+        if (revocation == null || revocation.expiresAt().isBefore(Instant.now())) {
+            return false;
+        }
+        Instant issuedAt = jwt.getIssuedAt();
+        boolean revoked = issuedAt == null || issuedAt.isBefore(revocation.revokedAt())
+                || revokedTokens.containsKey(TokenHashing.sha256(jwt.getTokenValue()));
+        if (revoked) {
+            metricsService.recordRevokedTokenRejected();
+        }
+        return revoked;
+    }
+
+    /**
+     * Drop exact entries whose tokens can no longer be valid
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.cleanup-interval:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        revocations.values().removeIf(revocation -> revocation.expiresAt().isBefore(now));
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+    }
+
+    /**
+     * Start a fresh Bloom generation; entries added before the previous
+     * rotation are older than the maximum token lifetime by now
+     */
+    @Scheduled(initialDelayString = "${security.revocation.max-token-lifetime:3600000}",
+            fixedRateString = "${security.revocation.max-token-lifetime:3600000}")
+    public void rotateFilters() {
+        previousFilter = currentFilter;
+        currentFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        // Re-add still-live revocations so none of them falls out of both generations
+        revocations.keySet().forEach(subject -> currentFilter.add(TokenHashing.sha256Bytes(subject)));
+    }
+
+    private record Revocation(Instant revokedAt, Instant expiresAt) {
+    }
+}
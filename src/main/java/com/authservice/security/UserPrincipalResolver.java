@@ -0,0 +1,101 @@
+package com.authservice.security;
+
+import com.authservice.cache.UserProfileCache;
+import com.authservice.dto.UserDTO;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Maps a Cognito sub to the local users.id.
+ *
+ * The sub never changes for a user, so the sub-to-id mapping is cached on its
+ * own; the profile itself comes from UserProfileCache, which is invalidated on
+ * renames and deletes. Rows created before cognito_sub existed are linked on
+ * first sight by username, but only while their cognito_sub is still empty.
+ */
+@Component
+public class UserPrincipalResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalResolver.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${cache.user-principal.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, Long> userIdsBySub;
+
+    @PostConstruct
+    public void init() {
+        userIdsBySub = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        metricsService.monitorCache(userIdsBySub, "userIdBySub");
+    }
+
+    public Optional<AuthenticatedUser> resolve(Jwt jwt) {
+        String sub = jwt.getSubject();
+        if (sub == null) {
+            return Optional.empty();
+        }
+
+        Long userId = userIdsBySub.get(sub, key -> userRepository.findIdByCognitoSub(key)
+                .orElseGet(() -> linkLegacyUser(key, usernameClaim(jwt))));
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        Optional<UserDTO> user = userProfileCache.findById(userId);
+        if (user.isEmpty()) {
+            // Deleted since the mapping was cached
+            userIdsBySub.invalidate(sub);
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedUser(userId, user.get().getUsername(), sub));
+    }
+
+    /**
+     * Cognito username from an id token (cognito:username) or access token (username)
+     */
+    public static String usernameClaim(Jwt jwt) {
+        String username = jwt.getClaimAsString("cognito:username");
+        if (username == null) {
+            username = jwt.getClaimAsString("username");
+        }
+        return username;
+    }
+
+    private Long linkLegacyUser(String sub, String username) {
+        if (username == null) {
+            return null;
+        }
+        return userProfileCache.findByUsername(username)
+                .filter(user -> userRepository.assignCognitoSub(user.getId(), sub) == 1)
+                .map(user -> {
+                    // The link incremented the row version the cached profile's ETag is built from
+                    userProfileCache.invalidate(user.getId(), username);
+                    logger.info("Linked user {} to Cognito sub {}", username, sub);
+                    return user.getId();
+                })
+                .orElse(null);
+    }
+}
@@ -5,20 +5,32 @@ import com.authservice.dto.LoginRequest;
 import com.authservice.dto.LoginResponse;
 import com.authservice.dto.RegisterRequest;
 import com.authservice.dto.UserDTO;
+import com.authservice.exception.InvalidCredentialsException;
+import com.authservice.exception.ServiceUnavailableException;
+import com.authservice.resilience.CognitoApiCategory;
+import com.authservice.resilience.CognitoResilience;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 /**
- * AWS Cognito Service for user authentication and management
+ * AWS Cognito Service for user authentication and management.
+ * All operations are non-blocking: they return a CompletableFuture that completes
+ * once Cognito answers, so no request thread is held for the round trip.
  */
 @Service
 public class CognitoService {
@@ -26,7 +38,7 @@ public class CognitoService {
     private static final Logger logger = LoggerFactory.getLogger(CognitoService.class);
 
     @Autowired
-    private CognitoIdentityProviderClient cognitoClient;
+    private CognitoIdentityProviderAsyncClient cognitoClient;
 
     @Autowired
     private AwsCognitoConfig cognitoConfig;
@@ -34,258 +46,401 @@ public class CognitoService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExecutorService cognitoCompletionExecutor;
+
+    @Autowired
+    private CognitoResilience resilience;
+
     /**
-     * Authenticate user with AWS Cognito
+     * Authenticate user with AWS Cognito.
+     * The local profile lookup runs concurrently with the Cognito call, so login
+     * latency is max(Cognito, DB) rather than their sum. The profile is only used
+     * once Cognito has accepted the credentials; a Cognito failure always wins.
      */
-    public LoginResponse authenticateUser(LoginRequest request) {
-        try {
-            Map<String, String> authParams = new HashMap<>();
-            authParams.put("USERNAME", request.getUsername());
-            authParams.put("PASSWORD", request.getPassword());
-
-            // Add SECRET_HASH if client secret is configured
-            if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
-                String secretHash = calculateSecretHash(
-                        cognitoConfig.getClientId(),
-                        cognitoConfig.getClientSecret(),
-                        request.getUsername()
-                );
-                authParams.put("SECRET_HASH", secretHash);
-            }
-
-            InitiateAuthRequest authRequest = InitiateAuthRequest.builder()
-                    .authFlow(AuthFlowType.USER_PASSWORD_AUTH)
-                    .clientId(cognitoConfig.getClientId())
-                    .authParameters(authParams)
-                    .build();
-
-            InitiateAuthResponse authResponse = cognitoClient.initiateAuth(authRequest);
-
-            AuthenticationResultType authResult = authResponse.authenticationResult();
-            String idToken = authResult.idToken();
-            // Note: accessToken and refreshToken are available but not used in this response
-            // They can be returned to the client if needed for token refresh or other operations
-
-            // Get user information from local database or create/sync with Cognito
-            UserDTO user = userService.findByUsername(request.getUsername());
-
-            logger.info("User authenticated successfully: {}", request.getUsername());
-
-            return new LoginResponse(idToken, user);
-
-        } catch (NotAuthorizedException e) {
-            logger.error("Authentication failed for user: {}", request.getUsername(), e);
-            throw new IllegalArgumentException("Invalid username or password");
-        } catch (UserNotFoundException e) {
-            logger.error("User not found: {}", request.getUsername(), e);
-            throw new IllegalArgumentException("User not found");
-        } catch (Exception e) {
-            logger.error("Error during authentication", e);
-            throw new RuntimeException("Authentication failed: " + e.getMessage());
+    public CompletableFuture<LoginResponse> authenticateUser(LoginRequest request) {
+        Map<String, String> authParams = new HashMap<>();
+        authParams.put("USERNAME", request.getUsername());
+        authParams.put("PASSWORD", request.getPassword());
+
+        // Add SECRET_HASH if client secret is configured
+        if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
+            String secretHash = calculateSecretHash(
+                    cognitoConfig.getClientId(),
+                    cognitoConfig.getClientSecret(),
+                    request.getUsername()
+            );
+            authParams.put("SECRET_HASH", secretHash);
         }
+
+        InitiateAuthRequest authRequest = InitiateAuthRequest.builder()
+                .authFlow(AuthFlowType.USER_PASSWORD_AUTH)
+                .clientId(cognitoConfig.getClientId())
+                .authParameters(authParams)
+                .build();
+
+        CompletableFuture<InitiateAuthResponse> cognitoAuth = resilience.execute(CognitoApiCategory.USER_AUTHENTICATION, "InitiateAuth",
+                () -> cognitoClient.initiateAuth(authRequest));
+
+        // Get user information from local database while Cognito verifies the credentials
+        CompletableFuture<UserDTO> localProfile = CompletableFuture.supplyAsync(
+                () -> userService.findByUsername(request.getUsername()), cognitoCompletionExecutor);
+
+        // thenCombine reports the Cognito failure first when both branches fail
+        return cognitoAuth
+                .thenCombine(localProfile, (authResponse, user) -> {
+                    AuthenticationResultType authResult = authResponse.authenticationResult();
+                    String idToken = authResult.idToken();
+                    // Note: accessToken and refreshToken are available but not used in this response
+                    // They can be returned to the client if needed for token refresh or other operations
+
+                    logger.info("User authenticated successfully: {}", request.getUsername());
+
+                    return new LoginResponse(idToken, user);
+                })
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    if (e instanceof NotAuthorizedException) {
+                        logger.error("Authentication failed for user: {}", request.getUsername(), e);
+                        throw new InvalidCredentialsException("Invalid username or password");
+                    }
+                    if (e instanceof UserNotFoundException) {
+                        logger.error("User not found: {}", request.getUsername(), e);
+                        throw new IllegalArgumentException("User not found");
+                    }
+                    logger.error("Error during authentication", e);
+                    throw new RuntimeException("Authentication failed: " + e.getMessage());
+                });
     }
 
     /**
-     * Register new user in AWS Cognito and local database
+     * Create the user in AWS Cognito.
+     * Local persistence and confirmation are orchestrated by RegistrationService.
      */
-    public UserDTO registerUser(RegisterRequest request) {
-        try {
-            // Create attributes for Cognito user
-            List<AttributeType> attributes = new ArrayList<>();
+    public CompletableFuture<SignUpResponse> signUp(RegisterRequest request) {
+        // Create attributes for Cognito user
+        List<AttributeType> attributes = new ArrayList<>();
+        attributes.add(AttributeType.builder()
+                .name("email")
+                .value(request.getEmail())
+                .build());
+        attributes.add(AttributeType.builder()
+                .name("given_name")
+                .value(request.getFirstName())
+                .build());
+        attributes.add(AttributeType.builder()
+                .name("family_name")
+                .value(request.getLastName())
+                .build());
+
+        if (request.getPhone() != null && !request.getPhone().isEmpty()) {
             attributes.add(AttributeType.builder()
-                    .name("email")
-                    .value(request.getEmail())
+                    .name("phone_number")
+                    .value(request.getPhone())
                     .build());
-            attributes.add(AttributeType.builder()
-                    .name("given_name")
-                    .value(request.getFirstName())
-                    .build());
-            attributes.add(AttributeType.builder()
-                    .name("family_name")
-                    .value(request.getLastName())
-                    .build());
-            
-            if (request.getPhone() != null && !request.getPhone().isEmpty()) {
-                attributes.add(AttributeType.builder()
-                        .name("phone_number")
-                        .value(request.getPhone())
-                        .build());
-            }
-
-            // Build sign up request
-            SignUpRequest.Builder signUpRequestBuilder = SignUpRequest.builder()
-                    .clientId(cognitoConfig.getClientId())
-                    .username(request.getUsername())
-                    .password(request.getPassword())
-                    .userAttributes(attributes);
-
-            // Add SECRET_HASH if client secret is configured
-            if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
-                String secretHash = calculateSecretHash(
-                        cognitoConfig.getClientId(),
-                        cognitoConfig.getClientSecret(),
-                        request.getUsername()
-                );
-                signUpRequestBuilder.secretHash(secretHash);
-            }
-
-            SignUpResponse signUpResponse = cognitoClient.signUp(signUpRequestBuilder.build());
-
-            logger.info("User created in Cognito: {}, UserSub: {}", 
-                    request.getUsername(), signUpResponse.userSub());
-
-            // Also create user in local database for relational data
-            UserDTO localUser = userService.registerUser(request);
-
-            // Auto-confirm user if needed (in production, you'd use email/SMS verification)
-            autoConfirmUser(request.getUsername());
-
-            return localUser;
-
-        } catch (UsernameExistsException e) {
-            logger.error("Username already exists: {}", request.getUsername(), e);
-            throw new IllegalArgumentException("Username already exists");
-        } catch (InvalidPasswordException e) {
-            logger.error("Invalid password for user: {}", request.getUsername(), e);
-            throw new IllegalArgumentException("Password does not meet requirements: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Error during user registration", e);
-            throw new RuntimeException("Registration failed: " + e.getMessage());
         }
+
+        // Build sign up request
+        SignUpRequest.Builder signUpRequestBuilder = SignUpRequest.builder()
+                .clientId(cognitoConfig.getClientId())
+                .username(request.getUsername())
+                .password(request.getPassword())
+                .userAttributes(attributes);
+
+        // Add SECRET_HASH if client secret is configured
+        if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
+            String secretHash = calculateSecretHash(
+                    cognitoConfig.getClientId(),
+                    cognitoConfig.getClientSecret(),
+                    request.getUsername()
+            );
+            signUpRequestBuilder.secretHash(secretHash);
+        }
+
+        SignUpRequest signUpRequest = signUpRequestBuilder.build();
+        return resilience.execute(CognitoApiCategory.USER_CREATION, "SignUp",
+                        () -> cognitoClient.signUp(signUpRequest))
+                .whenComplete((signUpResponse, ex) -> {
+                    if (ex == null) {
+                        logger.info("User created in Cognito: {}, UserSub: {}",
+                                request.getUsername(), signUpResponse.userSub());
+                    }
+                })
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    if (e instanceof UsernameExistsException) {
+                        logger.error("Username already exists: {}", request.getUsername(), e);
+                        throw new IllegalArgumentException("Username already exists");
+                    }
+                    if (e instanceof InvalidPasswordException) {
+                        logger.error("Invalid password for user: {}", request.getUsername(), e);
+                        throw new IllegalArgumentException("Password does not meet requirements: " + e.getMessage());
+                    }
+                    logger.error("Error during user registration", e);
+                    throw new RuntimeException("Registration failed: " + e.getMessage());
+                });
     }
 
     /**
-     * Auto-confirm user (useful for development/testing)
+     * Confirm a signed-up user without the email/SMS code (admin confirmation).
+     * Failures are returned untranslated so the caller can decide whether to retry.
      */
-    private void autoConfirmUser(String username) {
-        try {
-            AdminConfirmSignUpRequest confirmRequest = AdminConfirmSignUpRequest.builder()
-                    .userPoolId(cognitoConfig.getUserPoolId())
-                    .username(username)
-                    .build();
+    public CompletableFuture<Void> confirmSignUp(String username) {
+        AdminConfirmSignUpRequest confirmRequest = AdminConfirmSignUpRequest.builder()
+                .userPoolId(cognitoConfig.getUserPoolId())
+                .username(username)
+                .build();
+
+        return resilience.execute(CognitoApiCategory.USER_CREATION, "AdminConfirmSignUp",
+                        () -> cognitoClient.adminConfirmSignUp(confirmRequest))
+                .thenAccept(response -> logger.info("User auto-confirmed: {}", username));
+    }
 
-            cognitoClient.adminConfirmSignUp(confirmRequest);
-            logger.info("User auto-confirmed: {}", username);
-        } catch (Exception e) {
-            logger.warn("Could not auto-confirm user: {}", username, e);
-        }
+    /**
+     * Delete a user from the Cognito user pool (used to compensate a failed registration).
+     * Failures are returned untranslated so the caller can decide whether to retry.
+     */
+    public CompletableFuture<Void> deleteUser(String username) {
+        AdminDeleteUserRequest deleteRequest = AdminDeleteUserRequest.builder()
+                .userPoolId(cognitoConfig.getUserPoolId())
+                .username(username)
+                .build();
+
+        return resilience.execute(CognitoApiCategory.USER_UPDATE, "AdminDeleteUser",
+                        () -> cognitoClient.adminDeleteUser(deleteRequest))
+                .thenAccept(response -> logger.info("User deleted from Cognito: {}", username));
     }
 
     /**
-     * Refresh access token using refresh token
+     * Create a user as an administrator (bulk import). Cognito generates a temporary password
+     * and, unless suppressInvitation is set, emails it to the user. Completes with the new
+     * user's sub. Failures are returned untranslated so the caller can decide whether to retry.
      */
-    public String refreshToken(String refreshToken) {
-        try {
-            Map<String, String> authParams = new HashMap<>();
-            authParams.put("REFRESH_TOKEN", refreshToken);
+    public CompletableFuture<String> adminCreateUser(String username, String email, String firstName,
+                                                     String lastName, String phone, boolean suppressInvitation) {
+        List<AttributeType> attributes = new ArrayList<>();
+        attributes.add(AttributeType.builder().name("email").value(email).build());
+        if (firstName != null) {
+            attributes.add(AttributeType.builder().name("given_name").value(firstName).build());
+        }
+        if (lastName != null) {
+            attributes.add(AttributeType.builder().name("family_name").value(lastName).build());
+        }
+        if (phone != null && !phone.isEmpty()) {
+            attributes.add(AttributeType.builder().name("phone_number").value(phone).build());
+        }
 
-            InitiateAuthRequest authRequest = InitiateAuthRequest.builder()
-                    .authFlow(AuthFlowType.REFRESH_TOKEN_AUTH)
-                    .clientId(cognitoConfig.getClientId())
-                    .authParameters(authParams)
-                    .build();
+        AdminCreateUserRequest.Builder requestBuilder = AdminCreateUserRequest.builder()
+                .userPoolId(cognitoConfig.getUserPoolId())
+                .username(username)
+                .userAttributes(attributes)
+                .desiredDeliveryMediums(DeliveryMediumType.EMAIL);
+        if (suppressInvitation) {
+            requestBuilder.messageAction(MessageActionType.SUPPRESS);
+        }
 
-            InitiateAuthResponse authResponse = cognitoClient.initiateAuth(authRequest);
-            return authResponse.authenticationResult().idToken();
+        AdminCreateUserRequest createRequest = requestBuilder.build();
+        return resilience.execute(CognitoApiCategory.USER_CREATION, "AdminCreateUser",
+                        () -> cognitoClient.adminCreateUser(createRequest))
+                .thenApply(response -> response.user().attributes().stream()
+                        .filter(attribute -> "sub".equals(attribute.name()))
+                        .map(AttributeType::value)
+                        .findFirst()
+                        .orElse(null));
+    }
 
-        } catch (Exception e) {
-            logger.error("Error refreshing token", e);
-            throw new RuntimeException("Token refresh failed: " + e.getMessage());
-        }
+    /**
+     * Attributes (including sub and email) of an existing user, by username.
+     * Failures are returned untranslated so the caller can decide whether to retry.
+     */
+    public CompletableFuture<Map<String, String>> adminGetUserAttributes(String username) {
+        AdminGetUserRequest getRequest = AdminGetUserRequest.builder()
+                .userPoolId(cognitoConfig.getUserPoolId())
+                .username(username)
+                .build();
+
+        return resilience.execute(CognitoApiCategory.USER_READ, "AdminGetUser",
+                        () -> cognitoClient.adminGetUser(getRequest))
+                .thenApply(response -> {
+                    Map<String, String> attributes = new HashMap<>();
+                    response.userAttributes().forEach(attribute -> attributes.put(attribute.name(), attribute.value()));
+                    return attributes;
+                });
+    }
+
+    /**
+     * Refresh access token using refresh token
+     */
+    public CompletableFuture<String> refreshToken(String refreshToken) {
+        Map<String, String> authParams = new HashMap<>();
+        authParams.put("REFRESH_TOKEN", refreshToken);
+
+        InitiateAuthRequest authRequest = InitiateAuthRequest.builder()
+                .authFlow(AuthFlowType.REFRESH_TOKEN_AUTH)
+                .clientId(cognitoConfig.getClientId())
+                .authParameters(authParams)
+                .build();
+
+        return resilience.execute(CognitoApiCategory.USER_AUTHENTICATION, "RefreshTokenAuth",
+                        () -> cognitoClient.initiateAuth(authRequest))
+                .thenApply(authResponse -> authResponse.authenticationResult().idToken())
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    logger.error("Error refreshing token", e);
+                    throw new RuntimeException("Token refresh failed: " + e.getMessage());
+                });
     }
 
     /**
      * Sign out user from Cognito
      */
-    public void signOut(String accessToken) {
-        try {
-            GlobalSignOutRequest signOutRequest = GlobalSignOutRequest.builder()
-                    .accessToken(accessToken)
-                    .build();
+    public CompletableFuture<Void> signOut(String accessToken) {
+        GlobalSignOutRequest signOutRequest = GlobalSignOutRequest.builder()
+                .accessToken(accessToken)
+                .build();
+
+        return resilience.execute(CognitoApiCategory.USER_AUTHENTICATION, "GlobalSignOut",
+                        () -> cognitoClient.globalSignOut(signOutRequest))
+                .<Void>thenApply(response -> {
+                    logger.info("User signed out successfully");
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    logger.error("Error during sign out", e);
+                    throw new RuntimeException("Sign out failed: " + e.getMessage());
+                });
+    }
 
-            cognitoClient.globalSignOut(signOutRequest);
-            logger.info("User signed out successfully");
+    /**
+     * Change user password
+     */
+    public CompletableFuture<Void> changePassword(String accessToken, String oldPassword, String newPassword) {
+        ChangePasswordRequest changePasswordRequest = ChangePasswordRequest.builder()
+                .accessToken(accessToken)
+                .previousPassword(oldPassword)
+                .proposedPassword(newPassword)
+                .build();
+
+        return resilience.execute(CognitoApiCategory.USER_UPDATE, "ChangePassword",
+                        () -> cognitoClient.changePassword(changePasswordRequest))
+                .<Void>thenApply(response -> {
+                    logger.info("Password changed successfully");
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    logger.error("Error changing password", e);
+                    throw new RuntimeException("Password change failed: " + e.getMessage());
+                });
+    }
 
-        } catch (Exception e) {
-            logger.error("Error during sign out", e);
-            throw new RuntimeException("Sign out failed: " + e.getMessage());
+    /**
+     * Initiate forgot password flow
+     */
+    public CompletableFuture<Void> forgotPassword(String username) {
+        ForgotPasswordRequest.Builder requestBuilder = ForgotPasswordRequest.builder()
+                .clientId(cognitoConfig.getClientId())
+                .username(username);
+
+        if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
+            String secretHash = calculateSecretHash(
+                    cognitoConfig.getClientId(),
+                    cognitoConfig.getClientSecret(),
+                    username
+            );
+            requestBuilder.secretHash(secretHash);
         }
+
+        ForgotPasswordRequest forgotPasswordRequest = requestBuilder.build();
+        return resilience.execute(CognitoApiCategory.ACCOUNT_RECOVERY, "ForgotPassword",
+                        () -> cognitoClient.forgotPassword(forgotPasswordRequest))
+                .<Void>thenApply(response -> {
+                    logger.info("Forgot password initiated for user: {}", username);
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    logger.error("Error initiating forgot password", e);
+                    throw new RuntimeException("Forgot password failed: " + e.getMessage());
+                });
     }
 
     /**
-     * Change user password
+     * Confirm forgot password with verification code
      */
-    public void changePassword(String accessToken, String oldPassword, String newPassword) {
-        try {
-            ChangePasswordRequest changePasswordRequest = ChangePasswordRequest.builder()
-                    .accessToken(accessToken)
-                    .previousPassword(oldPassword)
-                    .proposedPassword(newPassword)
-                    .build();
+    public CompletableFuture<Void> confirmForgotPassword(String username, String confirmationCode, String newPassword) {
+        ConfirmForgotPasswordRequest.Builder requestBuilder = ConfirmForgotPasswordRequest.builder()
+                .clientId(cognitoConfig.getClientId())
+                .username(username)
+                .confirmationCode(confirmationCode)
+                .password(newPassword);
+
+        if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
+            String secretHash = calculateSecretHash(
+                    cognitoConfig.getClientId(),
+                    cognitoConfig.getClientSecret(),
+                    username
+            );
+            requestBuilder.secretHash(secretHash);
+        }
 
-            cognitoClient.changePassword(changePasswordRequest);
-            logger.info("Password changed successfully");
+        ConfirmForgotPasswordRequest confirmForgotPasswordRequest = requestBuilder.build();
+        return resilience.execute(CognitoApiCategory.ACCOUNT_RECOVERY, "ConfirmForgotPassword",
+                        () -> cognitoClient.confirmForgotPassword(confirmForgotPasswordRequest))
+                .<Void>thenApply(response -> {
+                    logger.info("Password reset confirmed for user: {}", username);
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    Throwable e = unwrap(ex);
+                    rethrowIfUnavailable(e);
+                    logger.error("Error confirming forgot password", e);
+                    throw new RuntimeException("Confirm forgot password failed: " + e.getMessage());
+                });
+    }
 
-        } catch (Exception e) {
-            logger.error("Error changing password", e);
-            throw new RuntimeException("Password change failed: " + e.getMessage());
+    /**
+     * Surface resilience rejections and throttling that outlived its retries as 503
+     */
+    private static void rethrowIfUnavailable(Throwable e) {
+        if (e instanceof ServiceUnavailableException unavailable) {
+            throw unavailable;
+        }
+        if (e instanceof AwsServiceException serviceException && serviceException.isThrottlingException()) {
+            throw new ServiceUnavailableException("Authentication provider is busy, please retry shortly", e);
         }
     }
 
     /**
-     * Initiate forgot password flow
+     * Whether a failure may succeed later: resilience rejections, throttling, 5xx and network errors
      */
-    public void forgotPassword(String username) {
-        try {
-            ForgotPasswordRequest.Builder requestBuilder = ForgotPasswordRequest.builder()
-                    .clientId(cognitoConfig.getClientId())
-                    .username(username);
-
-            if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
-                String secretHash = calculateSecretHash(
-                        cognitoConfig.getClientId(),
-                        cognitoConfig.getClientSecret(),
-                        username
-                );
-                requestBuilder.secretHash(secretHash);
-            }
-
-            cognitoClient.forgotPassword(requestBuilder.build());
-            logger.info("Forgot password initiated for user: {}", username);
-
-        } catch (Exception e) {
-            logger.error("Error initiating forgot password", e);
-            throw new RuntimeException("Forgot password failed: " + e.getMessage());
+    static boolean isTransient(Throwable e) {
+        if (e instanceof ServiceUnavailableException) {
+            return true;
+        }
+        if (e instanceof AwsServiceException serviceException) {
+            return serviceException.isThrottlingException() || serviceException.statusCode() >= 500;
         }
+        return e instanceof SdkClientException;
     }
 
     /**
-     * Confirm forgot password with verification code
+     * Strip CompletionException/ExecutionException wrappers added by the async client
      */
-    public void confirmForgotPassword(String username, String confirmationCode, String newPassword) {
-        try {
-            ConfirmForgotPasswordRequest.Builder requestBuilder = ConfirmForgotPasswordRequest.builder()
-                    .clientId(cognitoConfig.getClientId())
-                    .username(username)
-                    .confirmationCode(confirmationCode)
-                    .password(newPassword);
-
-            if (cognitoConfig.getClientSecret() != null && !cognitoConfig.getClientSecret().isEmpty()) {
-                String secretHash = calculateSecretHash(
-                        cognitoConfig.getClientId(),
-                        cognitoConfig.getClientSecret(),
-                        username
-                );
-                requestBuilder.secretHash(secretHash);
-            }
-
-            cognitoClient.confirmForgotPassword(requestBuilder.build());
-            logger.info("Password reset confirmed for user: {}", username);
-
-        } catch (Exception e) {
-            logger.error("Error confirming forgot password", e);
-            throw new RuntimeException("Confirm forgot password failed: " + e.getMessage());
+    static Throwable unwrap(Throwable ex) {
+        Throwable current = ex;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
         }
+        return current;
     }
 
     /**
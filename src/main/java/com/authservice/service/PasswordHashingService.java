@@ -0,0 +1,105 @@
+package com.authservice.service;
+
+import com.authservice.exception.ServiceUnavailableException;
+import com.authservice.observability.MetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing on a dedicated, core-sized executor.
+ * Hashing is CPU bound (~100 ms per call), so it is kept off the shared request
+ * threads and bounded by a small queue; when the queue is full callers fail fast
+ * with 503 instead of piling up behind each other.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final MetricsService metricsService;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MetricsService metricsService,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.metricsService = metricsService;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        metricsService.registerGauge("password.hash.queue.depth",
+                "Number of password hash tasks waiting for a hashing thread",
+                () -> executor.getQueue().size());
+        metricsService.registerGauge("password.hash.active",
+                "Number of password hash tasks currently running",
+                executor::getActiveCount);
+
+        logger.info("Password hashing executor started with {} threads and queue capacity {}",
+                poolSize, queueCapacity);
+    }
+
+    /**
+     * Hash a raw password on the hashing executor, waiting for the result.
+     * Throws ServiceUnavailableException when the hashing queue is saturated.
+     */
+    public String hash(String rawPassword) {
+        long enqueuedAt = System.nanoTime();
+        Future<String> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                metricsService.recordPasswordHashQueueWait(startedAt - enqueuedAt);
+                try {
+                    return passwordEncoder.encode(rawPassword);
+                } finally {
+                    metricsService.recordPasswordHash(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metricsService.recordPasswordHashRejected();
+            logger.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceUnavailableException("Server is busy, please retry shortly");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
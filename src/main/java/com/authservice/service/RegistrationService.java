@@ -0,0 +1,225 @@
+package com.authservice.service;
+
+import com.authservice.dto.RegisterRequest;
+import com.authservice.dto.UserDTO;
+import com.authservice.exception.ServiceUnavailableException;
+import com.authservice.model.User;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.PendingRegistrationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration pipeline across Cognito and the local database.
+ *
+ * The Cognito sign-up and the local preparation (uniqueness check and password
+ * hash) run concurrently. The local user and a pending-registration record are
+ * then inserted in one transaction and the response is returned; confirmation
+ * happens asynchronously and is retried with backoff until it succeeds.
+ * If the local side fails after Cognito accepted the sign-up, the Cognito user
+ * is deleted again so the username is not left orphaned.
+ */
+@Service
+public class RegistrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationService.class);
+
+    private static final String STATUS_PENDING = "PENDING";
+    private static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private CognitoService cognitoService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PendingRegistrationRepository pendingRegistrationRepository;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private ExecutorService cognitoCompletionExecutor;
+
+    @Value("${registration.confirmation.max-attempts:8}")
+    private int confirmationMaxAttempts;
+
+    @Value("${registration.confirmation.initial-backoff:1000}")
+    private long confirmationInitialBackoffMillis;
+
+    @Value("${registration.confirmation.max-backoff:300000}")
+    private long confirmationMaxBackoffMillis;
+
+    @Value("${registration.confirmation.claim-lease:60000}")
+    private long confirmationClaimLeaseMillis;
+
+    @Value("${registration.compensation.max-attempts:3}")
+    private int compensationMaxAttempts;
+
+    /**
+     * Register new user in AWS Cognito and local database
+     */
+    public CompletableFuture<UserDTO> registerUser(RegisterRequest request) {
+        String username = request.getUsername();
+
+        CompletableFuture<SignUpResponse> signUp = cognitoService.signUp(request);
+        CompletableFuture<User> prepared = CompletableFuture.supplyAsync(
+                () -> userService.prepareRegistration(request), cognitoCompletionExecutor);
+
+        // Wait for both branches regardless of outcome, then decide what to keep
+        return CompletableFuture.allOf(signUp, prepared)
+                .handle((ignored, ex) -> {
+                    if (signUp.isCompletedExceptionally()) {
+                        // Nothing was written locally, so there is nothing to undo
+                        throw asCompletionException(signUp);
+                    }
+
+                    try {
+                        User user = prepared.join();
+                        user.setCognitoSub(signUp.join().userSub());
+                        // Created already claimed by the immediate attempt below, so no sweep races it
+                        UserDTO created = userService.completeRegistration(
+                                user, LocalDateTime.now().plus(Duration.ofMillis(confirmationClaimLeaseMillis)));
+                        confirmAsync(username);
+                        return created;
+                    } catch (RuntimeException e) {
+                        compensateCognitoSignUp(username, 1);
+                        throw translateLocalFailure(e);
+                    }
+                });
+    }
+
+    /**
+     * Retry confirmations that are due.
+     * Pending rows outlive restarts, so confirmations resume after a crash. Due rows are
+     * claimed (their next attempt pushed out by the claim lease) before anything is sent,
+     * so other replicas' sweeps and the next sweep here skip calls still in flight.
+     */
+    @Scheduled(fixedDelayString = "${registration.confirmation.sweep-interval:30000}")
+    public void retryPendingConfirmations() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> claimed = pendingRegistrationRepository.claimDue(
+                now, now.plus(Duration.ofMillis(confirmationClaimLeaseMillis)), 100);
+
+        for (String username : claimed) {
+            metricsService.recordRegistrationConfirmationRetry();
+            confirmAsync(username);
+        }
+    }
+
+    private void confirmAsync(String username) {
+        cognitoService.confirmSignUp(username)
+                .whenComplete((v, ex) -> {
+                    Throwable cause = ex == null ? null : CognitoService.unwrap(ex);
+                    if (cause == null || isAlreadyConfirmed(cause)) {
+                        pendingRegistrationRepository.deleteByUsername(username);
+                    } else {
+                        scheduleConfirmationRetry(username, cause);
+                    }
+                });
+    }
+
+    /**
+     * An earlier attempt went through but its reply was lost (timeout, crash before the delete)
+     */
+    private static boolean isAlreadyConfirmed(Throwable cause) {
+        return cause instanceof NotAuthorizedException
+                && cause.getMessage() != null
+                && cause.getMessage().contains("Current status is CONFIRMED");
+    }
+
+    private void scheduleConfirmationRetry(String username, Throwable cause) {
+        pendingRegistrationRepository.findByUsername(username).ifPresent(pending -> {
+            int attempts = pending.getAttempts() + 1;
+            pending.setAttempts(attempts);
+            pending.setLastError(truncate(cause.getMessage()));
+
+            if (attempts >= confirmationMaxAttempts) {
+                pending.setStatus(STATUS_FAILED);
+                metricsService.recordRegistrationConfirmationFailed();
+                logger.error("Giving up confirming user {} after {} attempts", username, attempts, cause);
+            } else {
+                long backoffMillis = backoffMillis(attempts);
+                pending.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+                logger.warn("Could not auto-confirm user: {} (attempt {}), retrying in {}ms",
+                        username, attempts, backoffMillis, cause);
+            }
+
+            pendingRegistrationRepository.save(pending);
+        });
+    }
+
+    /**
+     * Remove the Cognito user created by a sign-up whose local half failed
+     */
+    private void compensateCognitoSignUp(String username, int attempt) {
+        cognitoService.deleteUser(username)
+                .whenComplete((v, ex) -> {
+                    if (ex == null) {
+                        metricsService.recordRegistrationCompensation();
+                        logger.info("Compensated failed registration for user: {}", username);
+                    } else if (attempt < compensationMaxAttempts) {
+                        long backoffMillis = backoffMillis(attempt);
+                        logger.warn("Compensation for user {} failed (attempt {}), retrying in {}ms",
+                                username, attempt, backoffMillis, CognitoService.unwrap(ex));
+                        CompletableFuture.runAsync(
+                                () -> compensateCognitoSignUp(username, attempt + 1),
+                                CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS,
+                                        cognitoCompletionExecutor));
+                    } else {
+                        logger.error("Could not remove orphaned Cognito user {} after {} attempts",
+                                username, attempt, CognitoService.unwrap(ex));
+                    }
+                });
+    }
+
+    /**
+     * Exponential backoff with jitter, capped at the configured maximum
+     */
+    private long backoffMillis(int attempt) {
+        long exponential = confirmationInitialBackoffMillis << Math.min(attempt, 20);
+        long capped = Math.min(exponential, confirmationMaxBackoffMillis);
+        return ThreadLocalRandom.current().nextLong(capped / 2, capped + 1);
+    }
+
+    private RuntimeException translateLocalFailure(RuntimeException e) {
+        Throwable cause = CognitoService.unwrap(e);
+        if (cause instanceof IllegalArgumentException || cause instanceof ServiceUnavailableException) {
+            return (RuntimeException) cause;
+        }
+        logger.error("Error during user registration", cause);
+        return new RuntimeException("Registration failed: " + cause.getMessage());
+    }
+
+    private static CompletionException asCompletionException(CompletableFuture<?> failed) {
+        try {
+            failed.join();
+            throw new IllegalStateException("Future was expected to have failed");
+        } catch (CompletionException e) {
+            return e;
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= 500) {
+            return message;
+        }
+        return message.substring(0, 500);
+    }
+}
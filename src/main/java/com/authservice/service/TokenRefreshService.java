@@ -0,0 +1,102 @@
+package com.authservice.service;
+
+import com.authservice.observability.MetricsService;
+import com.authservice.security.TokenHashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight layer in front of CognitoService.refreshToken.
+ *
+ * Concurrent refreshes with the same refresh token share one in-flight Cognito
+ * call, and the resulting id token is served to duplicates arriving within a
+ * short window afterwards. Entries are keyed by a SHA-256 of the refresh token
+ * so raw tokens are never kept in memory.
+ */
+@Service
+public class TokenRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRefreshService.class);
+
+    @Autowired
+    private CognitoService cognitoService;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${auth.refresh.coalesce-window:2000}")
+    private long coalesceWindowMillis;
+
+    @Value("${auth.refresh.max-recent-entries:10000}")
+    private int maxRecentEntries;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RecentRefresh> recent = new ConcurrentHashMap<>();
+
+    /**
+     * Refresh the id token, coalescing identical concurrent requests
+     */
+    public CompletableFuture<String> refreshToken(String refreshToken) {
+        String key = TokenHashing.sha256(refreshToken);
+
+        RecentRefresh cached = recent.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                metricsService.recordTokenRefreshCoalescedRecent();
+                return CompletableFuture.completedFuture(cached.idToken());
+            }
+            recent.remove(key, cached);
+        }
+
+        boolean[] leader = new boolean[1];
+        CompletableFuture<String> shared = inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            return new CompletableFuture<>();
+        });
+
+        if (!leader[0]) {
+            metricsService.recordTokenRefreshCoalescedInFlight();
+            return shared;
+        }
+
+        // Only the leader calls Cognito; the future is registered before the call starts
+        metricsService.recordTokenRefreshUpstream();
+        cognitoService.refreshToken(refreshToken).whenComplete((idToken, ex) -> {
+            if (ex == null && coalesceWindowMillis > 0 && recent.size() < maxRecentEntries) {
+                recent.put(key, new RecentRefresh(idToken, System.currentTimeMillis() + coalesceWindowMillis));
+            }
+            inFlight.remove(key, shared);
+            if (ex == null) {
+                shared.complete(idToken);
+            } else {
+                shared.completeExceptionally(ex);
+            }
+        });
+        return shared;
+    }
+
+    /**
+     * Drop expired entries so the recent-refresh map does not hold stale tokens
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh.cleanup-interval:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = recent.size();
+        recent.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        int evicted = before - recent.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} expired refresh results", evicted);
+        }
+    }
+
+    private record RecentRefresh(String idToken, long expiresAtMillis) {
+    }
+}
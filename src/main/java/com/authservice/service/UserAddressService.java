@@ -1,22 +1,25 @@
 package com.authservice.service;
 
+import com.authservice.cache.UserProfileCache;
 import com.authservice.dto.AddressDTO;
 import com.authservice.dto.CreateAddressRequest;
 import com.authservice.dto.UpdateAddressRequest;
+import com.authservice.exception.PreconditionFailedException;
 import com.authservice.exception.ResourceNotFoundException;
 import com.authservice.model.User;
 import com.authservice.model.UserAddress;
 import com.authservice.observability.MetricsService;
 import com.authservice.repository.UserAddressRepository;
 import com.authservice.repository.UserRepository;
+import com.authservice.repository.UserVersions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class UserAddressService {
@@ -32,45 +35,48 @@ public class UserAddressService {
     @Autowired
     private MetricsService metricsService;
 
-    public List<AddressDTO> getUserAddresses(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-        
-        return addressRepository.findByUserOrderByIsDefaultDescCreatedAtDesc(user).stream()
-                .map(AddressDTO::from)
-                .collect(Collectors.toList());
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Transactional(readOnly = true)
+    public List<AddressDTO> getUserAddresses(Long userId) {
+        return addressRepository.findViewsByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<AddressDTO> getUserAddressesByUserId(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (userProfileCache.findById(userId).isEmpty()) {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
         
-        return addressRepository.findByUserIdOrderByIsDefaultDescCreatedAtDesc(userId).stream()
-                .map(AddressDTO::from)
-                .collect(Collectors.toList());
+        return addressRepository.findViewsByUserId(userId);
     }
 
-    public AddressDTO getAddressById(Long addressId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-        
-        UserAddress address = addressRepository.findByIdAndUserId(addressId, user.getId())
+    /**
+     * Version of the user's address list, bumped by the database on every address change
+     */
+    public long getAddressesVersion(Long userId) {
+        return userRepository.findVersionsById(userId)
+                .map(UserVersions::addressesVersion)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+
+    @Transactional(readOnly = true)
+    public AddressDTO getAddressById(Long addressId, Long userId) {
+        return addressRepository.findViewByIdAndUserId(addressId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
-        
-        return AddressDTO.from(address);
     }
 
     @Transactional
-    public AddressDTO createAddress(String username, CreateAddressRequest request) {
-        logger.info("Creating address for user: {}", username);
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+    public AddressDTO createAddress(Long userId, CreateAddressRequest request) {
+        logger.info("Creating address for user: {}", userId);
 
-        // If this is set as default, unset other defaults
+        // Reference only: the caller's id was resolved from an existing user
+        User user = userRepository.getReferenceById(userId);
+
+        // Clear the current default first; the one-default constraint is checked per statement
         if (Boolean.TRUE.equals(request.getIsDefault())) {
-            addressRepository.resetAllDefaultForUser(user);
+            addressRepository.clearDefault(userId);
         }
 
         UserAddress address = new UserAddress();
@@ -85,26 +91,78 @@ public class UserAddressService {
         address.setAddressType(request.getAddressType() != null ? request.getAddressType() : "BOTH");
 
         address = addressRepository.save(address);
-        logger.info("Address created with id: {} for user: {}", address.getId(), username);
+        logger.info("Address created with id: {} for user: {}", address.getId(), userId);
         
         metricsService.recordAddressCreated();
 
         return AddressDTO.from(address);
     }
 
+    /**
+     * Insert many addresses in one transaction. Ids are pre-allocated from the sequence,
+     * so Hibernate sends the inserts in JDBC batches rather than one round trip each.
+     */
     @Transactional
-    public AddressDTO updateAddress(Long addressId, String username, UpdateAddressRequest request) {
-        logger.info("Updating address {} for user: {}", addressId, username);
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+    public List<AddressDTO> createAddresses(Long userId, List<CreateAddressRequest> requests) {
+        logger.info("Creating {} addresses for user: {}", requests.size(), userId);
 
-        UserAddress address = addressRepository.findByIdAndUserId(addressId, user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
+        long defaults = requests.stream().filter(request -> Boolean.TRUE.equals(request.getIsDefault())).count();
+        if (defaults > 1) {
+            throw new IllegalArgumentException("At most one address can be marked as default");
+        }
+
+        User user = userRepository.getReferenceById(userId);
+        if (defaults == 1) {
+            addressRepository.clearDefault(userId);
+        }
+
+        List<UserAddress> addresses = new ArrayList<>(requests.size());
+        for (CreateAddressRequest request : requests) {
+            UserAddress address = new UserAddress();
+            address.setUser(user);
+            address.setAddressLine1(request.getAddressLine1());
+            address.setAddressLine2(request.getAddressLine2());
+            address.setCity(request.getCity());
+            address.setState(request.getState());
+            address.setPostalCode(request.getPostalCode());
+            address.setCountry(request.getCountry());
+            address.setIsDefault(request.getIsDefault() != null ? request.getIsDefault() : false);
+            address.setAddressType(request.getAddressType() != null ? request.getAddressType() : "BOTH");
+            addresses.add(address);
+        }
+
+        addresses = addressRepository.saveAll(addresses);
+        addressRepository.flush();
+        logger.info("Created {} addresses for user: {}", addresses.size(), userId);
+
+        metricsService.recordAddressesCreated(addresses.size());
 
-        // If this is being set as default, unset other defaults
-        if (Boolean.TRUE.equals(request.getIsDefault()) && !address.getIsDefault()) {
-            addressRepository.resetDefaultForUser(user, addressId);
+        return addresses.stream().map(AddressDTO::from).toList();
+    }
+
+    /**
+     * Admin variant of createAddresses, for any existing user
+     */
+    @Transactional
+    public List<AddressDTO> createAddressesForUser(Long userId, List<CreateAddressRequest> requests) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return createAddresses(userId, requests);
+    }
+
+    /**
+     * requiredVersion is the version named by the request's If-Match header, or null for none;
+     * the row's @Version still rejects an update that races this one
+     */
+    @Transactional
+    public AddressDTO updateAddress(Long addressId, Long userId, UpdateAddressRequest request, Long requiredVersion) {
+        logger.info("Updating address {} for user: {}", addressId, userId);
+
+        UserAddress address = addressRepository.findByIdAndUserId(addressId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
+        if (requiredVersion != null && !requiredVersion.equals(address.getVersion())) {
+            throw new PreconditionFailedException("Address has changed since it was read");
         }
 
         // Update only provided fields
@@ -126,67 +184,66 @@ public class UserAddressService {
         if (request.getCountry() != null) {
             address.setCountry(request.getCountry());
         }
-        if (request.getIsDefault() != null) {
-            address.setIsDefault(request.getIsDefault());
+        // Becoming the default is done by switchDefault below, which also clears the old one
+        boolean makeDefault = Boolean.TRUE.equals(request.getIsDefault()) && !address.getIsDefault();
+        if (Boolean.FALSE.equals(request.getIsDefault())) {
+            address.setIsDefault(false);
         }
         if (request.getAddressType() != null) {
             address.setAddressType(request.getAddressType());
         }
 
-        address = addressRepository.save(address);
-        logger.info("Address {} updated for user: {}", addressId, username);
+        // Flushed here so the returned address carries the incremented version
+        address = addressRepository.saveAndFlush(address);
+        if (makeDefault) {
+            // The managed entity is not touched again afterwards, so its stale version is never flushed
+            addressRepository.switchDefault(userId, addressId);
+        }
+        logger.info("Address {} updated for user: {}", addressId, userId);
         
         metricsService.recordAddressUpdated();
 
-        return AddressDTO.from(address);
+        AddressDTO updated = AddressDTO.from(address);
+        if (makeDefault) {
+            // switchDefault set the flag and incremented the version once more
+            updated.setIsDefault(true);
+            updated.setVersion(updated.getVersion() + 1);
+        }
+        return updated;
     }
 
     @Transactional
-    public void deleteAddress(Long addressId, String username) {
-        logger.info("Deleting address {} for user: {}", addressId, username);
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+    public void deleteAddress(Long addressId, Long userId) {
+        logger.info("Deleting address {} for user: {}", addressId, userId);
 
-        if (!addressRepository.existsByIdAndUserId(addressId, user.getId())) {
+        if (!addressRepository.existsByIdAndUserId(addressId, userId)) {
             throw new ResourceNotFoundException("Address not found with id: " + addressId);
         }
 
         addressRepository.deleteById(addressId);
-        logger.info("Address {} deleted for user: {}", addressId, username);
+        logger.info("Address {} deleted for user: {}", addressId, userId);
         
         metricsService.recordAddressDeleted();
     }
 
     @Transactional
-    public AddressDTO setDefaultAddress(Long addressId, String username) {
-        logger.info("Setting address {} as default for user: {}", addressId, username);
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-
-        UserAddress address = addressRepository.findByIdAndUserId(addressId, user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
-
-        // Reset all other defaults
-        addressRepository.resetDefaultForUser(user, addressId);
+    public AddressDTO setDefaultAddress(Long addressId, Long userId) {
+        logger.info("Setting address {} as default for user: {}", addressId, userId);
 
-        // Set this as default
-        address.setIsDefault(true);
-        address = addressRepository.save(address);
+        if (addressRepository.switchDefault(userId, addressId) == 0) {
+            throw new ResourceNotFoundException("Address not found with id: " + addressId);
+        }
 
-        logger.info("Address {} set as default for user: {}", addressId, username);
+        logger.info("Address {} set as default for user: {}", addressId, userId);
         metricsService.recordDefaultAddressChanged();
         
-        return AddressDTO.from(address);
+        return addressRepository.findViewByIdAndUserId(addressId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
     }
 
-    public AddressDTO getDefaultAddress(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-
-        return addressRepository.findByUserAndIsDefaultTrue(user)
-                .map(AddressDTO::from)
-                .orElseThrow(() -> new ResourceNotFoundException("No default address found for user: " + username));
+    @Transactional(readOnly = true)
+    public AddressDTO getDefaultAddress(Long userId) {
+        return addressRepository.findDefaultViewByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("No default address found for user: " + userId));
     }
 }
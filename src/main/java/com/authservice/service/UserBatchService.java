@@ -0,0 +1,282 @@
+package com.authservice.service;
+
+import com.authservice.cache.UserProfileCache;
+import com.authservice.cache.UserSuggestionIndex;
+import com.authservice.dto.BatchItemResult;
+import com.authservice.dto.BatchItemResult.Status;
+import com.authservice.dto.BatchResult;
+import com.authservice.dto.BatchUserUpdate;
+import com.authservice.model.User;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserBatchTarget;
+import com.authservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Admin role changes, field updates and deletions over many users.
+ *
+ * Work is split into chunks of admin.users.batch.chunk-size users, each in its own
+ * transaction, so a 50k-user change neither holds locks for the whole run nor loses
+ * everything to one bad row. Within a chunk the users are read, checked and written
+ * with a handful of set-based statements instead of a round trip per user. A chunk
+ * that fails as a whole (e.g. a concurrent change breaks a unique constraint) reports
+ * FAILED for its items and the remaining chunks still run.
+ */
+@Service
+public class UserBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private UserSuggestionIndex userSuggestionIndex;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${admin.users.batch.max-items:50000}")
+    private int maxItems;
+
+    @Value("${admin.users.batch.chunk-size:500}")
+    private int chunkSize;
+
+    public BatchResult changeRoles(List<Long> userIds, String role) {
+        String newRole = role.trim().toUpperCase();
+        List<Long> ids = distinct(userIds);
+        return run("role", ids, chunk -> changeRoleChunk(chunk, newRole));
+    }
+
+    public BatchResult deleteUsers(List<Long> userIds) {
+        return run("delete", distinct(userIds), this::deleteChunk);
+    }
+
+    public BatchResult updateUsers(List<BatchUserUpdate> updates) {
+        checkSize(updates.size());
+        // Later items for an already listed user are rejected rather than silently merged,
+        // also when the first item for that user was itself rejected
+        Set<Long> seen = new HashSet<>();
+        Map<Long, BatchUserUpdate> byId = new LinkedHashMap<>();
+        Map<Integer, BatchItemResult> rejected = new HashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            BatchUserUpdate update = updates.get(i);
+            if (!seen.add(update.getUserId())) {
+                rejected.put(i, new BatchItemResult(update.getUserId(), Status.INVALID, "Duplicate user id in batch"));
+            } else if (update.getPassword() != null && !update.getPassword().isBlank()) {
+                rejected.put(i, new BatchItemResult(update.getUserId(), Status.INVALID,
+                        "Passwords cannot be changed in a batch"));
+            } else {
+                byId.put(update.getUserId(), update);
+            }
+        }
+        BatchResult result = run("update", new ArrayList<>(byId.keySet()), chunk -> updateChunk(chunk, byId));
+        if (rejected.isEmpty()) {
+            return result;
+        }
+        metricsService.recordAdminBatchItems("update", Status.INVALID.name(), rejected.size());
+        // Accepted user ids are distinct, so each request slot maps back to exactly one result
+        Map<Long, BatchItemResult> applied = new HashMap<>();
+        result.results().forEach(item -> applied.put(item.userId(), item));
+        List<BatchItemResult> results = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            BatchItemResult item = rejected.get(i);
+            results.add(item != null ? item : applied.get(updates.get(i).getUserId()));
+        }
+        return BatchResult.of(results);
+    }
+
+    private BatchResult run(String operation, List<Long> ids,
+                            Function<List<Long>, List<BatchItemResult>> chunkWork) {
+        checkSize(ids.size());
+        long started = System.currentTimeMillis();
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            List<BatchItemResult> chunkResults;
+            try {
+                chunkResults = transactionTemplate.execute(status -> chunkWork.apply(chunk));
+            } catch (DataAccessException | TransactionException e) {
+                logger.warn("Admin batch {} chunk of {} users failed", operation, chunk.size(), e);
+                String error = "Conflicting concurrent change, retry these users";
+                chunkResults = chunk.stream().map(id -> new BatchItemResult(id, Status.FAILED, error)).toList();
+            }
+            results.addAll(chunkResults);
+        }
+
+        Map<Status, Integer> counts = new HashMap<>();
+        results.forEach(result -> counts.merge(result.status(), 1, Integer::sum));
+        counts.forEach((status, count) -> metricsService.recordAdminBatchItems(operation, status.name(), count));
+        logger.info("Admin batch {} of {} users finished in {}ms: {}", operation, ids.size(),
+                System.currentTimeMillis() - started, counts);
+        return BatchResult.of(results);
+    }
+
+    private List<BatchItemResult> changeRoleChunk(List<Long> ids, String role) {
+        Map<Long, UserBatchTarget> targets = lockTargets(ids);
+        List<UserBatchTarget> changing = targets.values().stream()
+                .filter(target -> !role.equals(target.role()))
+                .toList();
+        if (!changing.isEmpty()) {
+            userRepository.updateRoleByIds(changing.stream().map(UserBatchTarget::id).toList(), role);
+            userProfileCache.invalidateMany(changing.stream().map(UserBatchTarget::id).toList(),
+                    changing.stream().map(UserBatchTarget::username).toList());
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserBatchTarget target = targets.get(id);
+            if (target == null) {
+                results.add(notFound(id));
+            } else {
+                results.add(new BatchItemResult(id, role.equals(target.role()) ? Status.UNCHANGED : Status.UPDATED,
+                        null));
+            }
+        }
+        return results;
+    }
+
+    private List<BatchItemResult> deleteChunk(List<Long> ids) {
+        Map<Long, UserBatchTarget> targets = lockTargets(ids);
+        if (!targets.isEmpty()) {
+            userRepository.deleteByIds(targets.keySet());
+            userProfileCache.invalidateMany(targets.keySet(),
+                    targets.values().stream().map(UserBatchTarget::username).toList());
+            targets.keySet().forEach(userSuggestionIndex::remove);
+        }
+        return ids.stream()
+                .map(id -> targets.containsKey(id) ? new BatchItemResult(id, Status.DELETED, null) : notFound(id))
+                .toList();
+    }
+
+    /**
+     * Loads the chunk's users in one query and checks every requested username and email
+     * against the table with one query each; the entity changes are flushed as JDBC batches.
+     */
+    private List<BatchItemResult> updateChunk(List<Long> ids, Map<Long, BatchUserUpdate> updates) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+
+        Set<String> requestedUsernames = new HashSet<>();
+        Set<String> requestedEmails = new HashSet<>();
+        for (Long id : ids) {
+            User user = users.get(id);
+            BatchUserUpdate update = updates.get(id);
+            String username = trimToNull(update.getUsername());
+            if (user != null && username != null && !username.equals(user.getUsername())) {
+                requestedUsernames.add(username);
+            }
+            String email = trimToNull(update.getEmail());
+            if (user != null && email != null && !email.equals(user.getEmail())) {
+                requestedEmails.add(email);
+            }
+        }
+        Set<String> takenUsernames = requestedUsernames.isEmpty() ? new HashSet<>()
+                : new HashSet<>(userRepository.findExistingUsernames(requestedUsernames));
+        Set<String> takenEmails = requestedEmails.isEmpty() ? new HashSet<>()
+                : new HashSet<>(userRepository.findExistingEmails(requestedEmails));
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        List<Long> changedIds = new ArrayList<>();
+        List<String> changedUsernames = new ArrayList<>();
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user == null) {
+                results.add(notFound(id));
+                continue;
+            }
+            String previousUsername = user.getUsername();
+            boolean updated;
+            try {
+                // Names claimed by an earlier item of this batch count as taken
+                updated = userManagementService.applyAdminUpdate(user, updates.get(id),
+                        takenUsernames::contains, takenEmails::contains);
+            } catch (IllegalArgumentException e) {
+                results.add(new BatchItemResult(id, Status.CONFLICT, e.getMessage()));
+                continue;
+            }
+            if (!updated) {
+                results.add(new BatchItemResult(id, Status.UNCHANGED, null));
+                continue;
+            }
+            if (!previousUsername.equals(user.getUsername())) {
+                takenUsernames.add(user.getUsername());
+            }
+            takenEmails.add(user.getEmail());
+            changedIds.add(id);
+            changedUsernames.add(previousUsername);
+            changedUsernames.add(user.getUsername());
+            userSuggestionIndex.put(user);
+            results.add(new BatchItemResult(id, Status.UPDATED, null));
+        }
+
+        if (!changedIds.isEmpty()) {
+            userProfileCache.invalidateMany(changedIds, changedUsernames);
+        }
+        return results;
+    }
+
+    private Map<Long, UserBatchTarget> lockTargets(List<Long> ids) {
+        Map<Long, UserBatchTarget> targets = new HashMap<>();
+        for (UserBatchTarget target : userRepository.findBatchTargetsForUpdate(ids)) {
+            targets.put(target.id(), target);
+        }
+        return targets;
+    }
+
+    private void checkSize(int size) {
+        if (size > maxItems) {
+            throw new IllegalArgumentException("A batch can change at most " + maxItems + " users");
+        }
+    }
+
+    private static List<Long> distinct(Collection<Long> ids) {
+        return new ArrayList<>(new LinkedHashSet<>(ids));
+    }
+
+    private static BatchItemResult notFound(Long id) {
+        return new BatchItemResult(id, Status.NOT_FOUND, "User not found with id: " + id);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
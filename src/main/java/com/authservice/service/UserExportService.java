@@ -0,0 +1,250 @@
+package com.authservice.service;
+
+import com.authservice.dto.AddressDTO;
+import com.authservice.dto.UserDTO;
+import com.authservice.model.User;
+import com.authservice.model.UserAddress;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Streams every user (optionally with addresses) as NDJSON or CSV.
+ *
+ * Rows come from a forward-only JDBC cursor and are written as they arrive;
+ * the persistence context is cleared every batch, so memory use does not grow
+ * with the table. Must run inside the transaction opened here, which keeps
+ * the cursor alive for the duration of the export.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final int BATCH_SIZE = Integer.parseInt(UserRepository.EXPORT_FETCH_SIZE);
+
+    private static final String[] USER_COLUMNS = {
+            "id", "username", "email", "first_name", "last_name", "phone", "role", "created_at", "updated_at"
+    };
+
+    private static final String[] ADDRESS_COLUMNS = {
+            "address_id", "address_line1", "address_line2", "city", "state", "postal_code", "country",
+            "address_type", "is_default"
+    };
+
+    public enum Format { NDJSON, CSV }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AtomicInteger activeExports = new AtomicInteger();
+
+    @PostConstruct
+    public void registerGauges() {
+        metricsService.registerGauge("admin.export.active", "Exports currently streaming", activeExports::get);
+    }
+
+    /**
+     * Write the export to the given stream; returns the number of users written
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, Format format, boolean includeAddresses) throws IOException {
+        activeExports.incrementAndGet();
+        long started = System.currentTimeMillis();
+        String formatTag = format.name().toLowerCase();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        ExportProgress progress = new ExportProgress(formatTag);
+        try {
+            if (format == Format.CSV) {
+                writeCsvHeader(writer, includeAddresses);
+            }
+            if (includeAddresses) {
+                try (Stream<Object[]> rows = userRepository.streamAllWithAddressesOrderById()) {
+                    writeUsersWithAddresses(rows.iterator(), writer, format, progress);
+                }
+            } else {
+                try (Stream<User> users = userRepository.streamAllOrderById()) {
+                    Iterator<User> iterator = users.iterator();
+                    while (iterator.hasNext()) {
+                        User user = iterator.next();
+                        if (format == Format.NDJSON) {
+                            writeNdjson(writer, user, null);
+                        } else {
+                            writeCsvRow(writer, user, null, false);
+                        }
+                        progress.userWritten(writer);
+                    }
+                }
+            }
+            writer.flush();
+            progress.finish();
+            logger.info("Exported {} users as {} in {}ms", progress.users, formatTag,
+                    System.currentTimeMillis() - started);
+            return progress.users;
+        } finally {
+            activeExports.decrementAndGet();
+        }
+    }
+
+    /**
+     * Rows arrive ordered by user id, so one user's addresses are consecutive
+     */
+    private void writeUsersWithAddresses(Iterator<Object[]> rows, Writer writer, Format format,
+                                         ExportProgress progress) throws IOException {
+        User current = null;
+        List<UserAddress> addresses = new ArrayList<>();
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            User user = (User) row[0];
+            if (current != null && !current.getId().equals(user.getId())) {
+                writeUser(writer, format, current, addresses);
+                progress.userWritten(writer);
+                addresses.clear();
+            }
+            current = user;
+            if (row[1] != null) {
+                addresses.add((UserAddress) row[1]);
+            }
+        }
+        if (current != null) {
+            writeUser(writer, format, current, addresses);
+            progress.userWritten(writer);
+        }
+    }
+
+    private void writeUser(Writer writer, Format format, User user, List<UserAddress> addresses) throws IOException {
+        if (format == Format.NDJSON) {
+            writeNdjson(writer, user, addresses);
+        } else if (addresses.isEmpty()) {
+            writeCsvRow(writer, user, null, true);
+        } else {
+            // One CSV row per address, repeating the user columns
+            for (UserAddress address : addresses) {
+                writeCsvRow(writer, user, address, true);
+            }
+        }
+    }
+
+    private void writeNdjson(Writer writer, User user, List<UserAddress> addresses) throws IOException {
+        ObjectNode node = objectMapper.valueToTree(UserDTO.from(user));
+        if (addresses != null) {
+            ArrayNode array = node.putArray("addresses");
+            for (UserAddress address : addresses) {
+                array.add(objectMapper.valueToTree(AddressDTO.from(address)));
+            }
+        }
+        writer.write(objectMapper.writeValueAsString(node));
+        writer.write('\n');
+    }
+
+    private void writeCsvHeader(Writer writer, boolean includeAddresses) throws IOException {
+        writer.write(String.join(",", USER_COLUMNS));
+        if (includeAddresses) {
+            writer.write(',');
+            writer.write(String.join(",", ADDRESS_COLUMNS));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvRow(Writer writer, User user, UserAddress address, boolean includeAddresses)
+            throws IOException {
+        List<Object> values = new ArrayList<>(List.of(
+                user.getId(), nullToEmpty(user.getUsername()), nullToEmpty(user.getEmail()),
+                nullToEmpty(user.getFirstName()), nullToEmpty(user.getLastName()), nullToEmpty(user.getPhone()),
+                nullToEmpty(user.getRole()), nullToEmpty(user.getCreatedAt()), nullToEmpty(user.getUpdatedAt())));
+        if (includeAddresses) {
+            if (address == null) {
+                for (int i = 0; i < ADDRESS_COLUMNS.length; i++) {
+                    values.add("");
+                }
+            } else {
+                values.addAll(List.of(
+                        address.getId(), nullToEmpty(address.getAddressLine1()), nullToEmpty(address.getAddressLine2()),
+                        nullToEmpty(address.getCity()), nullToEmpty(address.getState()),
+                        nullToEmpty(address.getPostalCode()), nullToEmpty(address.getCountry()),
+                        nullToEmpty(address.getAddressType()), nullToEmpty(address.getIsDefault())));
+            }
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvEscape(values.get(i).toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    private static Object nullToEmpty(Object value) {
+        return value == null ? "" : value;
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Tracks rows written, flushing output and detaching entities once per batch
+     */
+    private class ExportProgress {
+        private final String format;
+        private long users;
+        private long unreported;
+
+        ExportProgress(String format) {
+            this.format = format;
+        }
+
+        void userWritten(Writer writer) throws IOException {
+            users++;
+            unreported++;
+            if (unreported >= BATCH_SIZE) {
+                // Keeps the persistence context (and heap) flat and pushes bytes to the client
+                entityManager.clear();
+                writer.flush();
+                metricsService.recordExportRows(format, unreported);
+                unreported = 0;
+            }
+        }
+
+        void finish() {
+            if (unreported > 0) {
+                metricsService.recordExportRows(format, unreported);
+                unreported = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.authservice.service;
+
+import com.authservice.repository.UserImportRowRepository.StagedRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Parses an import upload (CSV with a header row, or NDJSON) one row at a time.
+ *
+ * Rows are numbered from 1 in file order, not counting the CSV header or blank lines.
+ * A row that fails validation is still returned, with its error set, so it is staged
+ * and reported rather than aborting the upload; only a structurally broken file
+ * (missing header, unterminated quote, too many rows) throws IllegalArgumentException.
+ */
+class UserImportReader implements Iterator<StagedRow> {
+
+    private static final Set<String> ROLES = Set.of("USER", "ADMIN");
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern NO_WHITESPACE = Pattern.compile("^\\S+$");
+
+    /** CSV header names; the export's snake_case columns, so an export can be imported again */
+    private static final String[] CSV_COLUMNS = {"username", "email", "first_name", "last_name", "phone", "role"};
+
+    private final BufferedReader in;
+    private final UserImportService.Format format;
+    private final ObjectMapper objectMapper;
+    private final long maxRows;
+
+    /** Position of each of CSV_COLUMNS in the file, or -1 */
+    private int[] csvPositions;
+    private long lineNo;
+    private StagedRow next;
+
+    UserImportReader(InputStream body, UserImportService.Format format, ObjectMapper objectMapper, long maxRows) {
+        this.in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = format == UserImportService.Format.CSV ? readCsvRow() : readNdjsonRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public StagedRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StagedRow row = next;
+        next = null;
+        return row;
+    }
+
+    private StagedRow readNdjsonRow() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        long rowNo = nextLineNo();
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (!node.isObject()) {
+                return invalid(rowNo, "Expected a JSON object");
+            }
+            return validated(rowNo, text(node, "username"), text(node, "email"), text(node, "firstName"),
+                    text(node, "lastName"), text(node, "phone"), text(node, "role"));
+        } catch (JsonProcessingException e) {
+            return invalid(rowNo, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private StagedRow readCsvRow() throws IOException {
+        if (csvPositions == null) {
+            readCsvHeader();
+        }
+        List<String> fields;
+        do {
+            fields = readCsvRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+        String[] values = new String[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            int position = csvPositions[i];
+            values[i] = position >= 0 && position < fields.size() ? fields.get(position) : null;
+        }
+        return validated(nextLineNo(), values[0], values[1], values[2], values[3], values[4], values[5]);
+    }
+
+    private void readCsvHeader() throws IOException {
+        List<String> header = readCsvRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV upload is empty");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        csvPositions = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            csvPositions[i] = positions.getOrDefault(CSV_COLUMNS[i], -1);
+        }
+        if (csvPositions[0] < 0 || csvPositions[1] < 0) {
+            throw new IllegalArgumentException("CSV header must include username and email columns");
+        }
+    }
+
+    /**
+     * One RFC 4180 record (quoted fields may contain commas, quotes and line breaks), or null at end of input
+     */
+    private List<String> readCsvRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                in.mark(1);
+                int following = in.read();
+                if (following == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    if (following != -1) {
+                        in.reset();
+                    }
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field after row " + lineNo);
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private long nextLineNo() {
+        if (lineNo >= maxRows) {
+            throw new IllegalArgumentException("Import exceeds the maximum of " + maxRows + " rows");
+        }
+        return ++lineNo;
+    }
+
+    private static StagedRow validated(long rowNo, String username, String email, String firstName,
+                                       String lastName, String phone, String role) {
+        username = clean(username);
+        email = clean(email);
+        firstName = clean(firstName);
+        lastName = clean(lastName);
+        phone = clean(phone);
+        role = role == null || role.isBlank() ? "USER" : role.trim().toUpperCase(Locale.ROOT);
+
+        String error = null;
+        if (username == null || username.length() < 3 || username.length() > 50) {
+            error = "Username must be between 3 and 50 characters";
+        } else if (!NO_WHITESPACE.matcher(username).matches()) {
+            error = "Username must not contain whitespace";
+        } else if (email == null || email.length() > 255 || !EMAIL.matcher(email).matches()) {
+            error = "Email must be valid";
+        } else if (firstName == null || lastName == null) {
+            error = "First name and last name are required";
+        } else if (firstName.length() > 100 || lastName.length() > 100) {
+            error = "Names must be at most 100 characters";
+        } else if (phone != null && phone.length() > 20) {
+            error = "Phone must be at most 20 characters";
+        } else if (!ROLES.contains(role)) {
+            error = "Role must be USER or ADMIN";
+        }
+        return new StagedRow(rowNo, username, email, firstName, lastName, phone, role, error);
+    }
+
+    private static StagedRow invalid(long rowNo, String error) {
+        return new StagedRow(rowNo, null, null, null, null, null, null, error);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String clean(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
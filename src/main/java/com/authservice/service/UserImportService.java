@@ -0,0 +1,457 @@
+package com.authservice.service;
+
+import com.authservice.cache.UserProfileCache;
+import com.authservice.cache.UserSuggestionIndex;
+import com.authservice.dto.UserImportJobDTO;
+import com.authservice.exception.ResourceNotFoundException;
+import com.authservice.model.UserImportJob;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserImportJobRepository;
+import com.authservice.repository.UserImportRowRepository;
+import com.authservice.repository.UserImportRowRepository.FailedRow;
+import com.authservice.repository.UserImportRowRepository.LoadCounts;
+import com.authservice.repository.UserImportRowRepository.PendingRow;
+import com.authservice.repository.UserImportRowRepository.ProvisionResult;
+import com.authservice.repository.UserImportRowRepository.StageCounts;
+import com.authservice.repository.UserRepository;
+import com.authservice.resilience.RequestPacer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UsernameExistsException;
+
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Admin bulk import of users from a CSV or NDJSON upload.
+ *
+ * 1. Stage: the upload is parsed as it streams in and written to user_import_rows with COPY.
+ * 2. Load: one INSERT ... SELECT creates the local users rows.
+ * 3. Provision: AdminCreateUser is called for each row, at most admin.users.import.parallelism
+ *    at a time and paced to admin.users.import.requests-per-second, so an import never takes
+ *    the whole USER_CREATION quota from interactive sign-ups.
+ *
+ * Steps 2 and 3 run on a background thread (one job at a time per replica). Every page of
+ * provisioning results is checkpointed in one transaction, so a job that fails (Cognito
+ * unavailable for too long, shutdown) can be resumed and only redoes its pending rows.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int MAX_FAILURES_PAGE = 1000;
+
+    public enum Format { CSV, NDJSON }
+
+    @Autowired
+    private UserImportJobRepository jobRepository;
+
+    @Autowired
+    private UserImportRowRepository rowRepository;
+
+    @Autowired
+    private CognitoService cognitoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private UserSuggestionIndex userSuggestionIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${admin.users.import.parallelism:8}")
+    private int parallelism;
+
+    @Value("${admin.users.import.requests-per-second:20}")
+    private double requestsPerSecond;
+
+    @Value("${admin.users.import.page-size:500}")
+    private int pageSize;
+
+    @Value("${admin.users.import.max-rows:1000000}")
+    private long maxRows;
+
+    @Value("${admin.users.import.send-invitations:true}")
+    private boolean sendInvitations;
+
+    @Value("${admin.users.import.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${admin.users.import.retry-delay:5000}")
+    private long retryDelayMillis;
+
+    @Value("${admin.users.import.stale-after:600000}")
+    private long staleAfterMillis;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("user-import").daemon(true).factory());
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Semaphore permits;
+    private RequestPacer pacer;
+    private volatile boolean shuttingDown;
+    private volatile JobRun currentRun;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(parallelism);
+        pacer = new RequestPacer(requestsPerSecond);
+        metricsService.registerGauge("admin.import.active", "Import jobs running on this instance", activeJobs::get);
+        metricsService.registerGauge("admin.import.inflight", "AdminCreateUser calls in flight for imports",
+                inFlight::get);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        runner.shutdownNow();
+    }
+
+    /**
+     * Stage the upload and queue the job; returns once the whole body has been read
+     */
+    public UserImportJobDTO startImport(InputStream body, Format format, String createdBy) {
+        UserImportJob job = new UserImportJob();
+        job.setFormat(format.name());
+        job.setCreatedBy(createdBy);
+        Long jobId = jobRepository.save(job).getId();
+
+        long started = System.currentTimeMillis();
+        StageCounts counts;
+        try {
+            counts = rowRepository.stage(jobId, new UserImportReader(body, format, objectMapper, maxRows));
+        } catch (SQLException e) {
+            jobRepository.failStaging(jobId, truncate("Staging failed: " + e.getMessage()));
+            throw new IllegalStateException("Could not stage import", e);
+        } catch (RuntimeException e) {
+            jobRepository.failStaging(jobId, truncate("Upload rejected: " + e.getMessage()));
+            throw e;
+        }
+        metricsService.recordImportRows("staged", counts.total() - counts.invalid());
+        metricsService.recordImportRows("invalid", counts.invalid());
+        logger.info("Import job {} staged {} rows ({} invalid) from {} in {}ms", jobId, counts.total(),
+                counts.invalid(), createdBy, System.currentTimeMillis() - started);
+
+        submit(jobId);
+        return getJob(jobId);
+    }
+
+    public UserImportJobDTO getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(UserImportJobDTO::from)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found"));
+    }
+
+    /**
+     * Rows that could not be imported, in file order, starting after the given row number
+     */
+    public List<FailedRow> getFailures(Long jobId, long afterLine, Integer limit) {
+        if (!jobRepository.existsById(jobId)) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        int size = limit == null ? 100 : Math.max(1, Math.min(limit, MAX_FAILURES_PAGE));
+        return rowRepository.findFailed(jobId, afterLine, size);
+    }
+
+    /**
+     * Continue a failed job, or one whose runner stopped checkpointing (e.g. its instance died)
+     */
+    public UserImportJobDTO resume(Long jobId) {
+        UserImportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found"));
+        LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMillis));
+        if (jobRepository.requeue(jobId, staleBefore) == 0) {
+            throw new IllegalArgumentException("Import job cannot be resumed while " + job.getStatus());
+        }
+        logger.info("Import job {} resumed", jobId);
+        submit(jobId);
+        return getJob(jobId);
+    }
+
+    private void submit(Long jobId) {
+        try {
+            runner.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job stays QUEUED and can be resumed once it is stale
+            logger.warn("Import job {} not started: instance is shutting down", jobId);
+        }
+    }
+
+    private void run(Long jobId) {
+        JobRun jobRun = new JobRun(jobId, UUID.randomUUID().toString());
+        if (jobRepository.start(jobId, jobRun.token) == 0) {
+            return;
+        }
+        currentRun = jobRun;
+        activeJobs.incrementAndGet();
+        long started = System.currentTimeMillis();
+        try {
+            UserImportJob job = jobRepository.findById(jobId).orElseThrow();
+            if (job.getLoadedAt() == null) {
+                LoadCounts counts = rowRepository.load(jobId, jobRun.token);
+                metricsService.recordImportRows("loaded", counts.loaded());
+                metricsService.recordImportRows("duplicate", counts.duplicates());
+                logger.info("Import job {} inserted {} users ({} duplicates) in {}ms", jobId, counts.loaded(),
+                        counts.duplicates(), System.currentTimeMillis() - started);
+                if (counts.loaded() > 0) {
+                    userSuggestionIndex.rebuild();
+                }
+            }
+            if (jobRepository.markProvisioningStarted(jobId, jobRun.token) == 0) {
+                throw jobRun.lost();
+            }
+            provision(jobRun);
+            if (jobRepository.complete(jobId, jobRun.token) == 0) {
+                throw jobRun.lost();
+            }
+            logger.info("Import job {} completed in {}ms", jobId, System.currentTimeMillis() - started);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            jobRepository.fail(jobId, jobRun.token, "Interrupted by shutdown; resume to continue");
+        } catch (ImportStalledException e) {
+            logger.warn("Import job {} stopped: {}", jobId, e.getMessage());
+            jobRepository.fail(jobId, jobRun.token, truncate(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            // Resumed elsewhere after looking stale; the new run owns the job now
+            logger.warn("Import job {} stopped: {}", jobId, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Import job {} failed", jobId, e);
+            jobRepository.fail(jobId, jobRun.token, truncate("Import failed: " + e.getMessage()));
+        } finally {
+            currentRun = null;
+            activeJobs.decrementAndGet();
+        }
+    }
+
+    /**
+     * Refresh the running job's updated_at, so it does not look stale during a long load or
+     * retry sleep; notices when the job has been resumed by someone else
+     */
+    @Scheduled(fixedDelayString = "${admin.users.import.heartbeat-interval:60000}")
+    public void heartbeat() {
+        JobRun jobRun = currentRun;
+        if (jobRun != null && jobRepository.heartbeat(jobRun.jobId, jobRun.token) == 0) {
+            jobRun.ownershipLost = true;
+        }
+    }
+
+    /**
+     * Page through the pending rows, checkpointing after each page. When Cognito throttles or is
+     * unavailable, the rows not yet sent stay pending and the page is retried after a delay.
+     */
+    private void provision(JobRun jobRun) throws InterruptedException {
+        Long jobId = jobRun.jobId;
+        long afterLine = 0;
+        int retries = 0;
+        while (true) {
+            if (jobRun.ownershipLost) {
+                throw jobRun.lost();
+            }
+            List<PendingRow> page = rowRepository.findPending(jobId, afterLine, pageSize);
+            if (page.isEmpty()) {
+                return;
+            }
+            AtomicReference<Throwable> transientError = new AtomicReference<>();
+            List<ProvisionResult> results = provisionPage(page, transientError);
+            if (!results.isEmpty()) {
+                rowRepository.recordResults(jobId, jobRun.token, results);
+                afterCheckpoint(page, results);
+                retries = 0;
+            }
+            if (shuttingDown) {
+                throw new InterruptedException();
+            }
+            if (transientError.get() == null) {
+                afterLine = page.get(page.size() - 1).lineNo();
+                continue;
+            }
+            if (++retries > maxRetries) {
+                throw new ImportStalledException("Cognito unavailable after " + maxRetries
+                        + " retries (" + describe(transientError.get()) + "); resume to continue");
+            }
+            long delay = retryDelayMillis * retries;
+            logger.warn("Import job {} throttled by Cognito, retrying in {}ms: {}", jobId, delay,
+                    describe(transientError.get()));
+            // afterLine is unchanged, so the rows left pending in this page are read again
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Create the page's Cognito users; stops sending as soon as one call fails transiently.
+     * Returns a result for every row whose outcome is final.
+     */
+    private List<ProvisionResult> provisionPage(List<PendingRow> page, AtomicReference<Throwable> transientError)
+            throws InterruptedException {
+        List<CompletableFuture<ProvisionResult>> calls = new ArrayList<>(page.size());
+        try {
+            for (PendingRow row : page) {
+                if (transientError.get() != null || shuttingDown) {
+                    break;
+                }
+                permits.acquire();
+                try {
+                    pacer.acquire();
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+                inFlight.incrementAndGet();
+                calls.add(cognitoService.adminCreateUser(row.username(), row.email(), row.firstName(),
+                                row.lastName(), row.phone(), !sendInvitations)
+                        .handle((sub, ex) -> {
+                            if (ex == null) {
+                                return CompletableFuture.completedFuture(
+                                        new ProvisionResult(row.lineNo(), row.userId(), sub, null));
+                            }
+                            Throwable e = CognitoService.unwrap(ex);
+                            if (e instanceof UsernameExistsException) {
+                                return claimExisting(row, transientError);
+                            }
+                            if (CognitoService.isTransient(e)) {
+                                transientError.compareAndSet(null, e);
+                                return CompletableFuture.<ProvisionResult>completedFuture(null);
+                            }
+                            return CompletableFuture.completedFuture(
+                                    new ProvisionResult(row.lineNo(), row.userId(), null, describe(e)));
+                        })
+                        .thenCompose(Function.identity())
+                        .whenComplete((result, ex) -> {
+                            inFlight.decrementAndGet();
+                            permits.release();
+                        }));
+            }
+        } finally {
+            // Whatever was sent must be recorded, even when interrupted
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        }
+        return calls.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * The username already exists in Cognito: either an earlier attempt of this job created it,
+     * or it belongs to someone else. Only the former (same email, sub not linked to another
+     * local user) is taken over; anything else fails the row instead of linking a stranger.
+     */
+    private CompletableFuture<ProvisionResult> claimExisting(PendingRow row,
+                                                             AtomicReference<Throwable> transientError) {
+        return cognitoService.adminGetUserAttributes(row.username())
+                .handle((attributes, ex) -> {
+                    if (ex != null) {
+                        Throwable e = CognitoService.unwrap(ex);
+                        if (CognitoService.isTransient(e)) {
+                            transientError.compareAndSet(null, e);
+                            return null;
+                        }
+                        return new ProvisionResult(row.lineNo(), row.userId(), null, describe(e));
+                    }
+                    if (!row.email().equalsIgnoreCase(attributes.get("email"))) {
+                        return new ProvisionResult(row.lineNo(), row.userId(), null,
+                                "Username already exists in Cognito with a different email");
+                    }
+                    String sub = attributes.get("sub");
+                    Optional<Long> linkedUserId = userRepository.findIdByCognitoSub(sub);
+                    if (linkedUserId.isPresent() && !linkedUserId.get().equals(row.userId())) {
+                        return new ProvisionResult(row.lineNo(), row.userId(), null,
+                                "Username already exists in Cognito for another account");
+                    }
+                    return new ProvisionResult(row.lineNo(), row.userId(), sub, null);
+                });
+    }
+
+    private void afterCheckpoint(List<PendingRow> page, List<ProvisionResult> results) {
+        Map<Long, String> usernames = new HashMap<>();
+        page.forEach(row -> usernames.put(row.lineNo(), row.username()));
+        long failed = 0;
+        for (ProvisionResult result : results) {
+            String username = usernames.get(result.lineNo());
+            if (result.error() == null) {
+                if (result.cognitoSub() != null) {
+                    // Linking the sub incremented the row version the cached profile's ETag is built from
+                    userProfileCache.invalidate(result.userId(), username);
+                }
+                continue;
+            }
+            failed++;
+            // The local user was deleted with the checkpoint
+            userProfileCache.invalidate(result.userId(), username);
+            userSuggestionIndex.remove(result.userId());
+        }
+        metricsService.recordImportRows("provisioned", results.size() - failed);
+        metricsService.recordImportRows("failed", failed);
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof AwsServiceException serviceException && serviceException.awsErrorDetails() != null) {
+            return serviceException.awsErrorDetails().errorCode() + ": "
+                    + serviceException.awsErrorDetails().errorMessage();
+        }
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    /** The job this instance is running, identified by the token it was started with */
+    private static class JobRun {
+        final Long jobId;
+        final String token;
+        volatile boolean ownershipLost;
+
+        JobRun(Long jobId, String token) {
+            this.jobId = jobId;
+            this.token = token;
+        }
+
+        OptimisticLockingFailureException lost() {
+            return new OptimisticLockingFailureException("Import job " + jobId + " is no longer run by this instance");
+        }
+    }
+
+    /** Cognito stayed unavailable through every retry; the job can be resumed later */
+    private static class ImportStalledException extends RuntimeException {
+        ImportStalledException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,25 +1,39 @@
 package com.authservice.service;
 
+import com.authservice.cache.UserProfileCache;
+import com.authservice.cache.UserSuggestionIndex;
+import com.authservice.dto.AddressDTO;
+import com.authservice.dto.AdminFullUserProfile;
 import com.authservice.dto.AdminUserDTO;
 import com.authservice.dto.AdminUserUpdateRequest;
+import com.authservice.dto.CursorPage;
+import com.authservice.dto.FullUserProfile;
 import com.authservice.dto.UpdateUserProfileRequest;
 import com.authservice.dto.UserDTO;
+import com.authservice.dto.UserSortOrder;
+import com.authservice.exception.PreconditionFailedException;
 import com.authservice.exception.ResourceNotFoundException;
 import com.authservice.model.User;
 import com.authservice.observability.MetricsService;
 import com.authservice.repository.UserAddressRepository;
+import com.authservice.repository.UserProfileRow;
 import com.authservice.repository.UserRepository;
+import com.authservice.repository.UserVersions;
+import com.authservice.repository.UserWithAddressCount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,23 +48,77 @@ public class UserManagementService {
     private UserAddressRepository addressRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private MetricsService metricsService;
 
-    public UserDTO getUserProfile(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-        return UserDTO.from(user);
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private UserSuggestionIndex userSuggestionIndex;
+
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @Value("${admin.users.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${admin.users.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${admin.users.search.max-results:100}")
+    private int maxSearchResults;
+
+    public UserDTO getUserProfile(Long userId) {
+        return userProfileCache.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+
+    /**
+     * The user and their addresses from a single LEFT JOIN; the admin view's address count is
+     * taken from the same rows
+     */
+    public FullUserProfile getFullProfile(Long userId) {
+        List<UserProfileRow> rows = userRepository.findProfileRowsById(userId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        List<AddressDTO> addresses = rows.stream()
+                .map(UserProfileRow::address)
+                .filter(address -> address != null && address.getId() != null)
+                .toList();
+        return new FullUserProfile(rows.get(0).user(), addresses, rows.get(0).addressesVersion());
+    }
+
+    public AdminFullUserProfile getAdminFullProfile(Long userId) {
+        FullUserProfile profile = getFullProfile(userId);
+        return new AdminFullUserProfile(AdminUserDTO.from(profile.user(), profile.addresses().size()),
+                profile.addresses());
     }
 
+    /**
+     * The user's row and address list versions, without loading either
+     */
+    public UserVersions getVersions(Long userId) {
+        return userRepository.findVersionsById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+
+    /**
+     * requiredVersion is the version named by the request's If-Match header, or null for none;
+     * the row's @Version still rejects an update that races this one
+     */
     @Transactional
-    public UserDTO updateUserProfile(String username, UpdateUserProfileRequest request) {
-        logger.info("Updating profile for user: {}", username);
+    public UserDTO updateUserProfile(Long userId, UpdateUserProfileRequest request, Long requiredVersion) {
+        logger.info("Updating profile for user: {}", userId);
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        if (requiredVersion != null && !requiredVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("Profile has changed since it was read");
+        }
 
         boolean updated = false;
 
@@ -79,101 +147,200 @@ public class UserManagementService {
 
         if (updated) {
             user.setUpdatedAt(LocalDateTime.now());
-            user = userRepository.save(user);
-            logger.info("Profile updated for user: {}", username);
+            // Flushed here so the returned profile carries the incremented version
+            user = userRepository.saveAndFlush(user);
+            userProfileCache.invalidate(userId, user.getUsername());
+            userSuggestionIndex.put(user);
+            logger.info("Profile updated for user: {}", userId);
             metricsService.recordUserProfileUpdate();
         }
 
         return UserDTO.from(user);
     }
 
+    /**
+     * Users with their address counts, in a single grouped query. With a search term,
+     * returns at most admin.users.search.max-results substring matches, most relevant first.
+     */
+    @Transactional(readOnly = true)
     public List<AdminUserDTO> getAllUsers(String search) {
-        List<User> users;
-        
         if (search == null || search.trim().isEmpty()) {
-            users = userRepository.findAll();
-        } else {
-            String query = search.trim();
-            users = userRepository.findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(query, query);
+            return userRepository.findAllAdminViews();
+        }
+
+        String query = search.trim().toLowerCase(Locale.ROOT);
+        String pattern = "%" + escapeLike(query) + "%";
+        List<Long> ids = userRepository.searchIdsBySubstring(query, pattern, maxSearchResults);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Keep the relevance order of the search
+        Map<Long, AdminUserDTO> views = new HashMap<>();
+        for (AdminUserDTO view : userRepository.findAdminViewsByIds(ids)) {
+            views.put(view.getId(), view);
+        }
+        return ids.stream()
+                .map(views::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * One keyset page of users. The cursor pins the position after the last row of the
+     * previous page, so each page is an index range scan regardless of depth.
+     */
+    public CursorPage<AdminUserDTO> getUsersPage(String sort, String cursor, Integer size) {
+        UserSortOrder order = UserSortOrder.fromValue(sort);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        UserPageCursor after = cursor == null || cursor.isBlank() ? null : UserPageCursor.decode(cursor, order);
+
+        // One extra row tells whether another page follows
+        int limit = pageSize + 1;
+        List<User> users = switch (order) {
+            case CREATED_AT -> after == null
+                    ? userRepository.findFirstPageByCreatedAt(limit)
+                    : userRepository.findPageByCreatedAtAfter(after.createdAt(), after.id(), limit);
+            case CREATED_AT_DESC -> after == null
+                    ? userRepository.findFirstPageByCreatedAtDesc(limit)
+                    : userRepository.findPageByCreatedAtBefore(after.createdAt(), after.id(), limit);
+            case USERNAME -> after == null
+                    ? userRepository.findFirstPageByUsername(limit)
+                    : userRepository.findPageByUsernameAfter(after.username(), limit);
+            case USERNAME_DESC -> after == null
+                    ? userRepository.findFirstPageByUsernameDesc(limit)
+                    : userRepository.findPageByUsernameBefore(after.username(), limit);
+        };
+
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+
+        return CursorPage.<AdminUserDTO>builder()
+                .items(withAddressCounts(users))
+                .sort(order.getValue())
+                .size(pageSize)
+                .nextCursor(hasMore ? UserPageCursor.after(order, users.get(users.size() - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * Attach address counts to a bounded list of users with one grouped query, keeping their order
+     */
+    private List<AdminUserDTO> withAddressCounts(List<User> users) {
+        Map<Long, Long> addressCounts = new HashMap<>();
+        if (!users.isEmpty()) {
+            addressRepository.countByUserIds(users.stream().map(User::getId).toList())
+                    .forEach(count -> addressCounts.put(count.userId(), count.count()));
         }
 
         return users.stream()
-                .map(user -> {
-                    int addressCount = addressRepository.countByUserId(user.getId());
-                    return AdminUserDTO.from(user, addressCount);
-                })
+                .map(user -> AdminUserDTO.from(user, addressCounts.getOrDefault(user.getId(), 0L).intValue()))
                 .collect(Collectors.toList());
     }
 
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Transactional(readOnly = true)
     public AdminUserDTO getUserById(Long userId) {
-        User user = userRepository.findById(userId)
+        return userRepository.findAdminViewById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        int addressCount = addressRepository.countByUserId(userId);
-        return AdminUserDTO.from(user, addressCount);
     }
 
     @Transactional
     public AdminUserDTO updateUser(Long userId, AdminUserUpdateRequest request) {
         logger.info("Admin updating user: {}", userId);
         
-        User user = userRepository.findById(userId)
+        // The user is loaded as a managed entity, so changes below are still flushed
+        UserWithAddressCount row = userRepository.findWithAddressCountById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        User user = row.user();
+
+        String previousUsername = user.getUsername();
+        boolean updated = applyAdminUpdate(user, request,
+                userRepository::existsByUsername, userRepository::existsByEmail);
+
+        if (updated) {
+            user = userRepository.save(user);
+            userProfileCache.invalidate(userId, previousUsername, user.getUsername());
+            userSuggestionIndex.put(user);
+            logger.info("User {} updated by admin", userId);
+            metricsService.recordAdminUserUpdate();
+        }
+
+        return AdminUserDTO.from(user, (int) row.addressCount());
+    }
+
+    /**
+     * Apply an admin update to a managed user; shared by the single and batch endpoints.
+     * Username and email uniqueness are checked before any field changes, so a rejected
+     * request leaves the entity untouched. Returns whether anything was set.
+     */
+    boolean applyAdminUpdate(User user, AdminUserUpdateRequest request,
+                             Predicate<String> usernameTaken, Predicate<String> emailTaken) {
+        String newUsername = trimToNull(request.getUsername());
+        if (newUsername != null && !newUsername.equals(user.getUsername()) && usernameTaken.test(newUsername)) {
+            throw new IllegalArgumentException("Username already exists");
+        }
+        String newEmail = trimToNull(request.getEmail());
+        if (newEmail != null && !newEmail.equals(user.getEmail()) && emailTaken.test(newEmail)) {
+            throw new IllegalArgumentException("Email already exists");
+        }
 
         boolean updated = false;
 
-        if (request.getUsername() != null && !request.getUsername().trim().isEmpty()) {
-            String newUsername = request.getUsername().trim();
-            if (!newUsername.equals(user.getUsername()) && userRepository.existsByUsername(newUsername)) {
-                throw new IllegalArgumentException("Username already exists");
-            }
+        if (newUsername != null) {
             user.setUsername(newUsername);
             updated = true;
         }
 
-        if (request.getEmail() != null && !request.getEmail().trim().isEmpty()) {
-            String newEmail = request.getEmail().trim();
-            if (!newEmail.equals(user.getEmail()) && userRepository.existsByEmail(newEmail)) {
-                throw new IllegalArgumentException("Email already exists");
-            }
+        if (newEmail != null) {
             user.setEmail(newEmail);
             updated = true;
         }
 
         if (request.getFirstName() != null) {
-            user.setFirstName(request.getFirstName().trim().isEmpty() ? null : request.getFirstName().trim());
+            user.setFirstName(trimToNull(request.getFirstName()));
             updated = true;
         }
 
         if (request.getLastName() != null) {
-            user.setLastName(request.getLastName().trim().isEmpty() ? null : request.getLastName().trim());
+            user.setLastName(trimToNull(request.getLastName()));
             updated = true;
         }
 
         if (request.getPhone() != null) {
-            user.setPhone(request.getPhone().trim().isEmpty() ? null : request.getPhone().trim());
+            user.setPhone(trimToNull(request.getPhone()));
             updated = true;
         }
 
-        if (request.getRole() != null && !request.getRole().trim().isEmpty()) {
-            user.setRole(request.getRole().trim().toUpperCase());
+        String role = trimToNull(request.getRole());
+        if (role != null) {
+            user.setRole(role.toUpperCase());
             updated = true;
         }
 
-        if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
-            user.setPasswordHash(passwordEncoder.encode(request.getPassword().trim()));
+        String password = trimToNull(request.getPassword());
+        if (password != null) {
+            user.setPasswordHash(passwordHashingService.hash(password));
             updated = true;
         }
 
         if (updated) {
             user.setUpdatedAt(LocalDateTime.now());
-            user = userRepository.save(user);
-            logger.info("User {} updated by admin", userId);
-            metricsService.recordAdminUserUpdate();
         }
+        return updated;
+    }
 
-        int addressCount = addressRepository.countByUserId(userId);
-        return AdminUserDTO.from(user, addressCount);
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
     }
 
     @Transactional
@@ -184,6 +351,8 @@ public class UserManagementService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
 
         userRepository.delete(user);
+        userProfileCache.invalidate(user.getId(), username);
+        userSuggestionIndex.remove(user.getId());
         logger.info("User deleted: {}", username);
         metricsService.recordUserDeletion();
     }
@@ -192,27 +361,17 @@ public class UserManagementService {
     public void deleteUserById(Long userId) {
         logger.info("Admin deleting user: {}", userId);
         
-        if (!userRepository.existsById(userId)) {
-            throw new ResourceNotFoundException("User not found with id: " + userId);
-        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        userRepository.deleteById(userId);
+        userRepository.delete(user);
+        userProfileCache.invalidate(userId, user.getUsername());
+        userSuggestionIndex.remove(userId);
         logger.info("User {} deleted by admin", userId);
         metricsService.recordUserDeletion();
     }
 
     public Map<String, Object> getUserStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        long totalUsers = userRepository.count();
-        long adminCount = userRepository.countByRole("ADMIN");
-        long userCount = userRepository.countByRole("USER");
-        
-        stats.put("totalUsers", totalUsers);
-        stats.put("adminCount", adminCount);
-        stats.put("userCount", userCount);
-        stats.put("totalAddresses", addressRepository.count());
-        
-        return stats;
+        return userStatisticsService.getStatistics();
     }
 }
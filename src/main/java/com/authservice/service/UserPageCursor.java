@@ -0,0 +1,59 @@
+package com.authservice.service;
+
+import com.authservice.dto.UserSortOrder;
+import com.authservice.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the admin user list: the sort order plus the sort
+ * key of the last row returned. Encoded as URL-safe base64 so clients treat it
+ * as a token rather than building their own.
+ */
+record UserPageCursor(UserSortOrder sort, LocalDateTime createdAt, Long id, String username) {
+
+    private static final String SEPARATOR = "\n";
+
+    static UserPageCursor after(UserSortOrder sort, User last) {
+        return new UserPageCursor(sort, last.getCreatedAt(), last.getId(), last.getUsername());
+    }
+
+    String encode() {
+        String raw = switch (sort) {
+            case CREATED_AT, CREATED_AT_DESC -> sort.name() + SEPARATOR + createdAt + SEPARATOR + id;
+            case USERNAME, USERNAME_DESC -> sort.name() + SEPARATOR + username;
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserPageCursor decode(String cursor, UserSortOrder expectedSort) {
+        UserPageCursor decoded = parse(cursor);
+        if (decoded == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (decoded.sort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+        return decoded;
+    }
+
+    private static UserPageCursor parse(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            UserSortOrder sort = UserSortOrder.valueOf(parts[0]);
+            return switch (sort) {
+                case CREATED_AT, CREATED_AT_DESC -> {
+                    String[] key = parts[1].split(SEPARATOR);
+                    yield new UserPageCursor(sort, LocalDateTime.parse(key[0]), Long.parseLong(key[1]), null);
+                }
+                case USERNAME, USERNAME_DESC -> new UserPageCursor(sort, null, null, parts[1]);
+            };
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
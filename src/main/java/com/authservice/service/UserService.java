@@ -1,13 +1,17 @@
 package com.authservice.service;
 
+import com.authservice.cache.UserProfileCache;
+import com.authservice.cache.UserSuggestionIndex;
 import com.authservice.dto.RegisterRequest;
 import com.authservice.dto.UserDTO;
+import com.authservice.model.PendingRegistration;
 import com.authservice.model.User;
+import com.authservice.repository.PendingRegistrationRepository;
 import com.authservice.repository.UserRepository;
 import com.authservice.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,9 +26,22 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PendingRegistrationRepository pendingRegistrationRepository;
 
-    public UserDTO registerUser(RegisterRequest request) {
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private UserSuggestionIndex userSuggestionIndex;
+
+    /**
+     * Validate and build the local user for a registration without writing anything.
+     * Safe to run concurrently with the Cognito sign-up.
+     */
+    public User prepareRegistration(RegisterRequest request) {
         logger.info("Registering user: {}", request.getUsername());
 
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -34,7 +51,7 @@ public class UserService {
         User user = new User();
         user.setEmail(request.getEmail());
         user.setUsername(request.getUsername());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHashingService.hash(request.getPassword()));
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setPhone(request.getPhone());
@@ -42,22 +59,35 @@ public class UserService {
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
+        return user;
+    }
+
+    /**
+     * Insert a prepared user together with its pending-confirmation record
+     */
+    @Transactional
+    public UserDTO completeRegistration(User user, LocalDateTime firstConfirmationRetryAt) {
         user = userRepository.save(user);
         logger.debug("User created with id: {}", user.getId());
 
+        PendingRegistration pending = new PendingRegistration();
+        pending.setUserId(user.getId());
+        pending.setUsername(user.getUsername());
+        pending.setNextAttemptAt(firstConfirmationRetryAt);
+        pendingRegistrationRepository.save(pending);
+        userSuggestionIndex.put(user);
+
         return UserDTO.from(user);
     }
 
     public UserDTO findByUsername(String username) {
-        User user = userRepository.findByUsername(username)
+        return userProfileCache.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-        return UserDTO.from(user);
     }
 
     public UserDTO findById(Long id) {
-        User user = userRepository.findById(id)
+        return userProfileCache.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        return UserDTO.from(user);
     }
 
     public User findUserEntityByUsername(String username) {
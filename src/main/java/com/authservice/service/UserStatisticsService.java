@@ -0,0 +1,169 @@
+package com.authservice.service;
+
+import com.authservice.observability.MetricsService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * User and address counts for the admin dashboard, read from the user_statistics
+ * counters instead of count(*) scans.
+ *
+ * The counters are maintained by triggers (see database/01-init.sql) inside each
+ * writing transaction. Reads sum a handful of slot rows and are memoized for
+ * admin.statistics.cache-ttl, so dashboard polling and gauge scrapes cost nothing
+ * beyond that. reconcile() periodically corrects any drift against the real counts.
+ */
+@Service
+public class UserStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatisticsService.class);
+
+    private static final String USERS = "users";
+    private static final String ROLE_PREFIX = "users.role.";
+    private static final String ADDRESSES = "addresses";
+
+    /**
+     * Advisory lock key serializing reconcile() across replicas; otherwise two runs
+     * measuring the same drift would both add it.
+     */
+    private static final long RECONCILE_LOCK_KEY = 0x75736572_73746174L;
+
+    /**
+     * Compares true counts with the counter sums in one statement (so both come from the
+     * same snapshot) and adds the difference to slot 0. Adding rather than overwriting keeps
+     * increments committed by concurrent writers after the snapshot. Runs after the advisory
+     * lock is taken, so its snapshot includes any correction committed by the previous holder.
+     */
+    private static final String RECONCILE_SQL = """
+            WITH actual AS (
+                SELECT 'users' AS name, count(*) AS value FROM users
+                UNION ALL
+                SELECT 'users.role.' || role, count(*) FROM users GROUP BY role
+                UNION ALL
+                SELECT 'addresses', count(*) FROM user_addresses
+            ), counted AS (
+                SELECT name, sum(value) AS value FROM user_statistics GROUP BY name
+            ), drift AS (
+                SELECT name, coalesce(actual.value, 0) - coalesce(counted.value, 0) AS delta
+                FROM actual FULL JOIN counted USING (name)
+            ), corrected AS (
+                INSERT INTO user_statistics (name, slot, value)
+                SELECT name, 0, delta FROM drift WHERE delta <> 0
+                ON CONFLICT (name, slot) DO UPDATE SET value = user_statistics.value + EXCLUDED.value
+            )
+            SELECT name, delta FROM drift WHERE delta <> 0
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${admin.statistics.cache-ttl:5000}")
+    private long cacheTtlMillis;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void registerGauges() {
+        metricsService.registerGauge("admin.statistics.users", "Total users", () -> current().get(USERS));
+        metricsService.registerGauge("admin.statistics.admins", "Users with the ADMIN role",
+                () -> current().get(ROLE_PREFIX + "ADMIN"));
+        metricsService.registerGauge("admin.statistics.regular.users", "Users with the USER role",
+                () -> current().get(ROLE_PREFIX + "USER"));
+        metricsService.registerGauge("admin.statistics.addresses", "Total addresses",
+                () -> current().get(ADDRESSES));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Counts counts = current();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", counts.get(USERS));
+        stats.put("adminCount", counts.get(ROLE_PREFIX + "ADMIN"));
+        stats.put("userCount", counts.get(ROLE_PREFIX + "USER"));
+        stats.put("totalAddresses", counts.get(ADDRESSES));
+        return stats;
+    }
+
+    /**
+     * Correct counter drift (e.g. from rows written before the triggers existed).
+     * Runs at startup and then every admin.statistics.reconcile-interval; costs one
+     * scan of users and user_addresses. Only one replica reconciles at a time; a run
+     * that finds another in progress is skipped.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${admin.statistics.reconcile-interval:3600000}")
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        Map<String, Long> corrections = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                    Boolean.class, RECONCILE_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            Map<String, Long> drift = new LinkedHashMap<>();
+            jdbcTemplate.query(RECONCILE_SQL, rs -> {
+                drift.put(rs.getString("name"), rs.getLong("delta"));
+            });
+            return drift;
+        });
+        if (corrections == null) {
+            logger.debug("User statistics reconciliation already running on another instance, skipped");
+            return;
+        }
+        for (Map.Entry<String, Long> correction : corrections.entrySet()) {
+            metricsService.recordStatisticsDrift(correction.getKey(), correction.getValue());
+        }
+        if (corrections.isEmpty()) {
+            logger.debug("User statistics reconciled in {}ms, no drift", System.currentTimeMillis() - started);
+        } else {
+            logger.warn("User statistics corrected in {}ms: {}", System.currentTimeMillis() - started, corrections);
+            snapshot = null;
+        }
+    }
+
+    private Counts current() {
+        Snapshot cached = snapshot;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.loadedAtMillis() < cacheTtlMillis) {
+            return cached.counts();
+        }
+        synchronized (this) {
+            cached = snapshot;
+            if (cached != null && now - cached.loadedAtMillis() < cacheTtlMillis) {
+                return cached.counts();
+            }
+            Map<String, Long> values = new HashMap<>();
+            jdbcTemplate.query("SELECT name, sum(value) AS value FROM user_statistics GROUP BY name",
+                    rs -> {
+                        values.put(rs.getString("name"), rs.getLong("value"));
+                    });
+            Counts counts = new Counts(values);
+            snapshot = new Snapshot(System.currentTimeMillis(), counts);
+            return counts;
+        }
+    }
+
+    private record Counts(Map<String, Long> values) {
+        long get(String name) {
+            return values.getOrDefault(name, 0L);
+        }
+    }
+
+    private record Snapshot(long loadedAtMillis, Counts counts) {
+    }
+}
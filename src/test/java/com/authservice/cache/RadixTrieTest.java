@@ -0,0 +1,154 @@
+package com.authservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTrieTest {
+
+    @Test
+    void prefixLookupVisitsValuesInKeyOrder() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.add("alice", "alice");
+        trie.add("bob", "bob");
+        trie.add("alex", "alex");
+        trie.add("al", "al");
+
+        assertThat(prefix(trie, "al")).containsExactly("al", "alex", "alice");
+        assertThat(prefix(trie, "")).containsExactly("al", "alex", "alice", "bob");
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    @Test
+    void prefixMayEndInsideAnEdge() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.add("alexander", "alexander");
+        trie.add("alexandra", "alexandra");
+
+        assertThat(prefix(trie, "alexa")).containsExactly("alexander", "alexandra");
+        assertThat(prefix(trie, "alexand")).containsExactly("alexander", "alexandra");
+        assertThat(prefix(trie, "alexande")).containsExactly("alexander");
+        assertThat(prefix(trie, "alexandr")).containsExactly("alexandra");
+        assertThat(prefix(trie, "alexo")).isEmpty();
+        assertThat(prefix(trie, "alexanderson")).isEmpty();
+        assertThat(prefix(trie, "b")).isEmpty();
+    }
+
+    @Test
+    void keysHoldSeveralValuesAndIgnoreDuplicates() {
+        RadixTrie<Long> trie = new RadixTrie<>();
+        trie.add("smith", 1L);
+        trie.add("smith", 2L);
+        trie.add("smith", 1L);
+
+        assertThat(prefix(trie, "smi")).containsExactly(1L, 2L);
+        assertThat(trie.size()).isEqualTo(2);
+    }
+
+    @Test
+    void visitorCanStopEarly() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        for (String key : List.of("a1", "a2", "a3", "a4")) {
+            trie.add(key, key);
+        }
+
+        List<String> visited = new ArrayList<>();
+        trie.visitPrefix("a", value -> {
+            visited.add(value);
+            return visited.size() < 2;
+        });
+
+        assertThat(visited).containsExactly("a1", "a2");
+    }
+
+    @Test
+    void removePrunesAndKeepsRemainingKeysReachable() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.add("al", "al");
+        trie.add("alex", "alex");
+        trie.add("alice", "alice");
+
+        trie.remove("alex", "alex");
+        assertThat(prefix(trie, "al")).containsExactly("al", "alice");
+
+        trie.remove("al", "al");
+        assertThat(prefix(trie, "ali")).containsExactly("alice");
+        assertThat(prefix(trie, "")).containsExactly("alice");
+
+        trie.remove("alice", "alice");
+        trie.remove("missing", "missing");
+        assertThat(prefix(trie, "")).isEmpty();
+        assertThat(trie.size()).isZero();
+    }
+
+    @Test
+    void removeOnlyDropsTheGivenValue() {
+        RadixTrie<Long> trie = new RadixTrie<>();
+        trie.add("smith", 1L);
+        trie.add("smith", 2L);
+
+        trie.remove("smith", 1L);
+        trie.remove("smith", 3L);
+
+        assertThat(prefix(trie, "smith")).containsExactly(2L);
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesASortedMapUnderRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        RadixTrie<String> trie = new RadixTrie<>();
+        Map<String, Set<String>> expected = new TreeMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            String key = randomKey(random);
+            String value = key + "#" + random.nextInt(3);
+            if (random.nextInt(3) == 0) {
+                trie.remove(key, value);
+                Set<String> values = expected.get(key);
+                if (values != null && values.remove(value) && values.isEmpty()) {
+                    expected.remove(key);
+                }
+            } else {
+                trie.add(key, value);
+                expected.computeIfAbsent(key, k -> new TreeSet<>()).add(value);
+            }
+        }
+
+        assertThat(trie.size()).isEqualTo(expected.values().stream().mapToInt(Set::size).sum());
+        for (String prefix : List.of("", "a", "ab", "abc", "b", "ba", "cab", "ccc")) {
+            List<String> keys = new ArrayList<>();
+            trie.visitPrefix(prefix, value -> keys.add(value.substring(0, value.indexOf('#'))));
+            List<String> expectedKeys = new ArrayList<>();
+            expected.forEach((key, values) -> {
+                if (key.startsWith(prefix)) {
+                    values.forEach(value -> expectedKeys.add(key));
+                }
+            });
+            assertThat(keys).as("prefix '%s'", prefix).isEqualTo(expectedKeys);
+        }
+    }
+
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(5);
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static <V> List<V> prefix(RadixTrie<V> trie, String prefix) {
+        List<V> values = new ArrayList<>();
+        trie.visitPrefix(prefix, values::add);
+        return values;
+    }
+}
@@ -0,0 +1,86 @@
+package com.authservice.cache;
+
+import com.authservice.dto.UserDTO;
+import com.authservice.observability.MetricsService;
+import com.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserProfileCacheTest {
+
+    private static final Long ID = 42L;
+    private static final String USERNAME = "alice";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProfileCache();
+        ReflectionTestUtils.setField(cache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(cache, "metricsService", new MetricsService(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "expireAfterWriteMillis", 600_000L);
+        ReflectionTestUtils.setField(cache, "notifyEnabled", false);
+        cache.init();
+    }
+
+    @Test
+    void evictionDuringAnInFlightLoadDoesNotLeaveTheOldRowCachedById() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch commitDone = new CountDownLatch(1);
+        when(userRepository.findProfileByUsername(USERNAME)).thenAnswer(invocation -> {
+            // Read before the writer commits, returned after its eviction has started
+            loadStarted.countDown();
+            commitDone.await(5, TimeUnit.SECONDS);
+            return Optional.of(profile(1L));
+        });
+        when(userRepository.findProfileById(ID)).thenReturn(Optional.of(profile(2L)));
+
+        CompletableFuture<Optional<UserDTO>> staleRead = CompletableFuture.supplyAsync(
+                () -> cache.findByUsername(USERNAME));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The writer's post-commit eviction: byId first, then byUsername, which waits for the load
+        Thread evictor = new Thread(() -> cache.invalidate(ID, USERNAME));
+        evictor.start();
+        awaitBlocked(evictor);
+        commitDone.countDown();
+        evictor.join(5_000);
+        staleRead.get(5, TimeUnit.SECONDS);
+
+        assertThat(cache.findById(ID).orElseThrow().getVersion()).isEqualTo(2L);
+    }
+
+    private static UserDTO profile(long version) {
+        return UserDTO.builder()
+                .id(ID)
+                .username(USERNAME)
+                .email("alice@example.com")
+                .role("USER")
+                .version(version)
+                .build();
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() == Thread.State.RUNNABLE || thread.getState() == Thread.State.NEW) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Eviction did not wait for the in-flight load");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
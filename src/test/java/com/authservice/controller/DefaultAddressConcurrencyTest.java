@@ -0,0 +1,128 @@
+package com.authservice.controller;
+
+import com.authservice.security.AuthenticatedUser;
+import com.authservice.security.CognitoAuthenticationToken;
+import com.authservice.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Concurrent default-address changes for one user must leave exactly one default,
+ * and a request that loses the race must get 409 rather than 500
+ */
+@AutoConfigureMockMvc
+class DefaultAddressConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int ADDRESSES = 4;
+    private static final int ROUNDS = 10;
+
+    private static final String ADDRESS_JSON = """
+            {"addressLine1": "1 Main St", "city": "Springfield", "state": "IL",
+             "postalCode": "62701", "country": "US", "isDefault": true}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CognitoAuthenticationToken caller;
+    private final List<Long> addressIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedUser() {
+        jdbcTemplate.execute("TRUNCATE users CASCADE");
+        Long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password_hash, cognito_sub) " +
+                "VALUES ('race-user', 'race-user@example.com', 'x', 'race-sub') RETURNING id", Long.class);
+        addressIds.clear();
+        for (int i = 0; i < ADDRESSES; i++) {
+            addressIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO user_addresses (user_id, address_line1, city, state, postal_code, country, " +
+                    "is_default) VALUES (?, 'Main St', 'Springfield', 'IL', '62701', 'US', ?) RETURNING id",
+                    Long.class, userId, i == 0));
+        }
+
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("race-sub")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        caller = new CognitoAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority("ROLE_USER")),
+                "race-user", new AuthenticatedUser(userId, "race-user", "race-sub"));
+    }
+
+    @Test
+    void concurrentDefaultChangesLeaveExactlyOneDefault() throws Exception {
+        List<RequestBuilder> requests = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Long addressId : addressIds) {
+                requests.add(patch("/api/users/me/addresses/{id}/default", addressId).with(authentication(caller)));
+                requests.add(put("/api/users/me/addresses/{id}", addressId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isDefault\": true}")
+                        .with(authentication(caller)));
+            }
+            requests.add(post("/api/users/me/addresses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(ADDRESS_JSON)
+                    .with(authentication(caller)));
+        }
+
+        List<Integer> statuses = runConcurrently(requests);
+
+        assertThat(statuses).hasSize(requests.size()).allMatch(status -> status == 200 || status == 201 || status == 409);
+        Integer defaults = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM user_addresses a JOIN users u ON u.id = a.user_id " +
+                "WHERE u.username = 'race-user' AND a.is_default", Integer.class);
+        assertThat(defaults).isEqualTo(1);
+    }
+
+    private List<Integer> runConcurrently(List<RequestBuilder> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (RequestBuilder request : requests) {
+                Callable<Integer> call = () -> {
+                    start.await();
+                    return mockMvc.perform(request).andReturn().getResponse().getStatus();
+                };
+                results.add(executor.submit(call));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> result : results) {
+                statuses.add(result.get());
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.authservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityTagsTest {
+
+    @Test
+    void tagsNameTheResourceAndItsVersions() {
+        assertThat(EntityTags.user(7L, 3)).isEqualTo("\"u7.3\"");
+        assertThat(EntityTags.addresses(7L, 5)).isEqualTo("\"al7.5\"");
+        assertThat(EntityTags.fullProfile(7L, 3, 5)).isEqualTo("\"f7.3.5\"");
+        assertThat(EntityTags.address(12L, 0)).isEqualTo("\"a12.0\"");
+    }
+
+    @Test
+    void ifNoneMatchUsesWeakComparison() {
+        String etag = EntityTags.user(7L, 3);
+
+        assertThat(EntityTags.matches(null, etag)).isFalse();
+        assertThat(EntityTags.matches("\"u7.3\"", etag)).isTrue();
+        assertThat(EntityTags.matches("W/\"u7.3\"", etag)).isTrue();
+        assertThat(EntityTags.matches("\"u7.2\", \"u7.3\"", etag)).isTrue();
+        assertThat(EntityTags.matches("*", etag)).isTrue();
+        assertThat(EntityTags.matches("\"u7.2\"", etag)).isFalse();
+        assertThat(EntityTags.matches("\"u8.3\"", etag)).isFalse();
+    }
+
+    @Test
+    void ifMatchWithoutATagIsNoPrecondition() {
+        assertThat(EntityTags.requiredUserVersion(null, 7L)).isNull();
+        assertThat(EntityTags.requiredUserVersion(" ", 7L)).isNull();
+        assertThat(EntityTags.requiredUserVersion(" * ", 7L)).isNull();
+    }
+
+    @Test
+    void ifMatchYieldsTheVersionOfTheMatchingTag() {
+        assertThat(EntityTags.requiredUserVersion("\"u7.3\"", 7L)).isEqualTo(3L);
+        assertThat(EntityTags.requiredUserVersion("\"a7.9\", \"u7.4\"", 7L)).isEqualTo(4L);
+        assertThat(EntityTags.requiredAddressVersion("\"a12.0\"", 12L)).isEqualTo(0L);
+    }
+
+    @Test
+    void ifMatchWithOnlyForeignWeakOrMalformedTagsNeverMatches() {
+        // Another user, a longer id with the same digits, another kind of resource
+        assertThat(EntityTags.requiredUserVersion("\"u8.3\"", 7L)).isEqualTo(EntityTags.NO_MATCH);
+        assertThat(EntityTags.requiredAddressVersion("\"a12.3\"", 1L)).isEqualTo(EntityTags.NO_MATCH);
+        assertThat(EntityTags.requiredUserVersion("\"al7.3\"", 7L)).isEqualTo(EntityTags.NO_MATCH);
+        assertThat(EntityTags.requiredAddressVersion("\"u12.3\"", 12L)).isEqualTo(EntityTags.NO_MATCH);
+        // If-Match compares strongly
+        assertThat(EntityTags.requiredUserVersion("W/\"u7.3\"", 7L)).isEqualTo(EntityTags.NO_MATCH);
+        assertThat(EntityTags.requiredUserVersion("\"u7.\"", 7L)).isEqualTo(EntityTags.NO_MATCH);
+        assertThat(EntityTags.requiredUserVersion("\"u7.x\"", 7L)).isEqualTo(EntityTags.NO_MATCH);
+        assertThat(EntityTags.requiredUserVersion("u7.3", 7L)).isEqualTo(EntityTags.NO_MATCH);
+    }
+}
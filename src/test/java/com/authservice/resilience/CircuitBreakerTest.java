@@ -0,0 +1,85 @@
+package com.authservice.resilience;
+
+import com.authservice.resilience.CircuitBreaker.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final List<State> transitions = new ArrayList<>();
+
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        // Opens after two failures out of two calls; zero open duration so the next call is a trial
+        breaker = new CircuitBreaker(4, 2, 0.5, 0, 1, (from, to) -> transitions.add(to));
+    }
+
+    @Test
+    void failuresOpenAndTrialSuccessCloses() {
+        open();
+
+        long trial = breaker.tryAcquirePermission();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(CircuitBreaker.NO_PERMISSION);
+
+        breaker.onSuccess(trial);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(transitions).containsExactly(State.OPEN, State.HALF_OPEN, State.CLOSED);
+    }
+
+    @Test
+    void trialFailureReopens() {
+        open();
+
+        long trial = breaker.tryAcquirePermission();
+        breaker.onFailure(trial);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void failureOfACallFromBeforeTheTrialDoesNotReopen() {
+        long slowCall = breaker.tryAcquirePermission();
+        open();
+
+        long trial = breaker.tryAcquirePermission();
+        breaker.onFailure(slowCall);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+
+        breaker.onSuccess(trial);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void staleCompletionsDoNotReleaseTrialPermits() {
+        long slowCall = breaker.tryAcquirePermission();
+        long otherSlowCall = breaker.tryAcquirePermission();
+        open();
+
+        long trial = breaker.tryAcquirePermission();
+        breaker.onIgnored(slowCall);
+        breaker.onSuccess(otherSlowCall);
+
+        // The only trial permit is still taken, and a stale success does not count towards closing
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(CircuitBreaker.NO_PERMISSION);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+
+        breaker.onIgnored(trial);
+        long retrial = breaker.tryAcquirePermission();
+        assertThat(retrial).isNotEqualTo(CircuitBreaker.NO_PERMISSION);
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(CircuitBreaker.NO_PERMISSION);
+    }
+
+    private void open() {
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+}
@@ -0,0 +1,84 @@
+package com.authservice.security;
+
+import com.authservice.observability.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+    private static final String SUBJECT = "3f6c1b2e-subject";
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(new MetricsService(new SimpleMeterRegistry()),
+                3_600_000L, 1_000L, 0.001);
+    }
+
+    @Test
+    void tokenIssuedInTheRevocationSecondAfterRevokingIsAccepted() {
+        Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        revocationList.revokeSubject(SUBJECT);
+        // iat is whole seconds, so a re-login right after the revocation carries its second
+        Instant reissued = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        assertThat(revocationList.isRevoked(token(SUBJECT, reissued))).isFalse();
+        assertThat(revocationList.isRevoked(token(SUBJECT, before.minusSeconds(1)))).isTrue();
+    }
+
+    @Test
+    void tokensIssuedBeforeTheRevocationAreRejected() {
+        Instant issued = Instant.now().minus(10, ChronoUnit.MINUTES);
+        revocationList.revokeSubject(SUBJECT);
+
+        assertThat(revocationList.isRevoked(token(SUBJECT, issued))).isTrue();
+    }
+
+    @Test
+    void tokenPresentedAtLogoutIsRejectedEvenWhenIssuedInTheRevocationSecond() {
+        // Logging out right after logging in: the presented token carries the revocation second
+        Jwt presented = token("presented-token", SUBJECT, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        revocationList.revoke(presented);
+        Jwt reissued = token("reissued-token", SUBJECT, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(revocationList.isRevoked(presented)).isTrue();
+        assertThat(revocationList.isRevoked(reissued)).isFalse();
+    }
+
+    @Test
+    void tokensWithoutIssuedAtAreRejectedForRevokedSubjects() {
+        revocationList.revokeSubject(SUBJECT);
+
+        assertThat(revocationList.isRevoked(token(SUBJECT, null))).isTrue();
+    }
+
+    @Test
+    void otherSubjectsAreUnaffected() {
+        revocationList.revokeSubject(SUBJECT);
+
+        assertThat(revocationList.isRevoked(token("other-subject", Instant.now().minusSeconds(60)))).isFalse();
+    }
+
+    private static Jwt token(String subject, Instant issuedAt) {
+        return token("token", subject, issuedAt);
+    }
+
+    private static Jwt token(String value, String subject, Instant issuedAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(value)
+                .header("alg", "RS256")
+                .subject(subject)
+                .expiresAt(Instant.now().plusSeconds(3600));
+        if (issuedAt != null) {
+            builder.issuedAt(issuedAt);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.authservice.service;
+
+import com.authservice.dto.AdminUserDTO;
+import com.authservice.dto.AdminUserUpdateRequest;
+import com.authservice.support.PostgresIntegrationTest;
+import com.authservice.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The admin listing endpoints must not issue a count query per user
+ */
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.authservice.support.StatementCounter")
+class AdminUserListingQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 25;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.execute("TRUNCATE users CASCADE");
+        userIds.clear();
+        for (int i = 0; i < USERS; i++) {
+            Long id = jdbcTemplate.queryForObject(
+                    "INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x') RETURNING id",
+                    Long.class, "listing-user-" + i, "listing-user-" + i + "@example.com");
+            for (int a = 0; a < i % 3; a++) {
+                jdbcTemplate.update("INSERT INTO user_addresses (user_id, address_line1, city, state, postal_code, " +
+                        "country) VALUES (?, 'Main St', 'Springfield', 'IL', '62701', 'US')", id);
+            }
+            userIds.add(id);
+        }
+        StatementCounter.reset();
+    }
+
+    @Test
+    void listingAllUsersRunsOneQuery() {
+        List<AdminUserDTO> users = userManagementService.getAllUsers(null);
+
+        assertThat(StatementCounter.count()).isEqualTo(1);
+        assertThat(users).hasSize(USERS);
+        for (int i = 0; i < USERS; i++) {
+            AdminUserDTO user = users.get(i);
+            assertThat(user.getId()).isEqualTo(userIds.get(i));
+            assertThat(user.getAddressCount()).isEqualTo(i % 3);
+        }
+    }
+
+    @Test
+    void searchingRunsTheMatchAndOneGroupedQuery() {
+        List<AdminUserDTO> users = userManagementService.getAllUsers("listing-user-1");
+
+        assertThat(StatementCounter.count()).isEqualTo(2);
+        assertThat(users).isNotEmpty()
+                .allSatisfy(user -> assertThat(user.getUsername()).contains("listing-user-1"));
+    }
+
+    @Test
+    void readingOneUserRunsOneQuery() {
+        AdminUserDTO user = userManagementService.getUserById(userIds.get(5));
+
+        assertThat(StatementCounter.count()).isEqualTo(1);
+        assertThat(user.getAddressCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updatingOneUserReadsItWithItsCountInOneQuery() {
+        AdminUserUpdateRequest request = new AdminUserUpdateRequest();
+        request.setFirstName("Updated");
+
+        AdminUserDTO user = userManagementService.updateUser(userIds.get(4), request);
+
+        // The grouped read and the UPDATE
+        assertThat(StatementCounter.count()).isEqualTo(2);
+        assertThat(user.getFirstName()).isEqualTo("Updated");
+        assertThat(user.getAddressCount()).isEqualTo(1);
+    }
+}
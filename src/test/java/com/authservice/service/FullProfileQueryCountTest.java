@@ -0,0 +1,83 @@
+package com.authservice.service;
+
+import com.authservice.dto.AddressDTO;
+import com.authservice.dto.AdminFullUserProfile;
+import com.authservice.dto.FullUserProfile;
+import com.authservice.exception.ResourceNotFoundException;
+import com.authservice.support.PostgresIntegrationTest;
+import com.authservice.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The composite profile views are read with a single join
+ */
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.authservice.support.StatementCounter")
+class FullProfileQueryCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long userWithoutAddressesId;
+
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.execute("TRUNCATE users CASCADE");
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password_hash) " +
+                "VALUES ('full-user', 'full-user@example.com', 'x') RETURNING id", Long.class);
+        userWithoutAddressesId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password_hash) " +
+                "VALUES ('bare-user', 'bare-user@example.com', 'x') RETURNING id", Long.class);
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO user_addresses (user_id, address_line1, city, state, postal_code, " +
+                    "country, is_default) VALUES (?, ?, 'Springfield', 'IL', '62701', 'US', ?)",
+                    userId, i + " Main St", i == 1);
+        }
+        StatementCounter.reset();
+    }
+
+    @Test
+    void fullProfileIsOneQuery() {
+        FullUserProfile profile = userManagementService.getFullProfile(userId);
+
+        assertThat(StatementCounter.count()).isEqualTo(1);
+        assertThat(profile.user().getUsername()).isEqualTo("full-user");
+        assertThat(profile.addresses()).hasSize(3);
+        // Default first
+        assertThat(profile.addresses().get(0).getAddressLine1()).isEqualTo("1 Main St");
+    }
+
+    @Test
+    void adminFullProfileCountsAddressesFromTheSameRows() {
+        AdminFullUserProfile profile = userManagementService.getAdminFullProfile(userId);
+
+        assertThat(StatementCounter.count()).isEqualTo(1);
+        assertThat(profile.user().getAddressCount()).isEqualTo(3);
+        assertThat(profile.addresses().stream().map(AddressDTO::getId).distinct().count()).isEqualTo(3);
+    }
+
+    @Test
+    void userWithoutAddressesHasAnEmptyList() {
+        AdminFullUserProfile profile = userManagementService.getAdminFullProfile(userWithoutAddressesId);
+
+        assertThat(StatementCounter.count()).isEqualTo(1);
+        assertThat(profile.addresses()).isEmpty();
+        assertThat(profile.user().getAddressCount()).isZero();
+    }
+
+    @Test
+    void unknownUserIsNotFound() {
+        assertThatThrownBy(() -> userManagementService.getFullProfile(-1L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.authservice.service;
+
+import com.authservice.dto.BatchItemResult;
+import com.authservice.dto.BatchItemResult.Status;
+import com.authservice.dto.BatchResult;
+import com.authservice.dto.BatchUserUpdate;
+import com.authservice.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batches smaller than, equal to and spanning several chunks report their results in
+ * request order: one per distinct user for role changes and deletions, one per item
+ * (rejected items included) for updates
+ */
+@TestPropertySource(properties = "admin.users.batch.chunk-size=3")
+class UserBatchServiceTest extends PostgresIntegrationTest {
+
+    private static final long MISSING_ID = 999_999_999L;
+
+    @Autowired
+    private UserBatchService userBatchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.execute("TRUNCATE users CASCADE");
+        userIds.clear();
+        for (int i = 0; i < 7; i++) {
+            userIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO users (username, email, password_hash, role) VALUES (?, ?, 'x', ?) RETURNING id",
+                    Long.class, "batch-user-" + i, "batch-user-" + i + "@example.com", i == 2 ? "ADMIN" : "USER"));
+        }
+    }
+
+    @Test
+    void changeRolesAcrossChunks() {
+        List<Long> requested = new ArrayList<>(userIds);
+        requested.add(MISSING_ID);
+        requested.add(userIds.get(0));
+
+        BatchResult result = userBatchService.changeRoles(requested, " admin ");
+
+        assertThat(result.requested()).isEqualTo(8);
+        assertThat(result.succeeded()).isEqualTo(7);
+        assertThat(result.results().stream().map(BatchItemResult::userId).toList())
+                .isEqualTo(requested.subList(0, 8));
+        assertThat(result.results().get(2).status()).isEqualTo(Status.UNCHANGED);
+        assertThat(result.results().get(3).status()).isEqualTo(Status.UPDATED);
+        assertThat(result.results().get(7).status()).isEqualTo(Status.NOT_FOUND);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE role = 'ADMIN'", Integer.class))
+                .isEqualTo(7);
+    }
+
+    @Test
+    void updateUsersReportsConflictsPerItem() {
+        BatchUserUpdate takenUsername = update(userIds.get(0));
+        takenUsername.setUsername("batch-user-1");
+        BatchUserUpdate firstClaim = update(userIds.get(1));
+        firstClaim.setEmail("shared@example.com");
+        BatchUserUpdate secondClaim = update(userIds.get(2));
+        secondClaim.setEmail("shared@example.com");
+        BatchUserUpdate rename = update(userIds.get(3));
+        rename.setFirstName("Renamed");
+        BatchUserUpdate unchanged = update(userIds.get(4));
+        BatchUserUpdate password = update(userIds.get(5));
+        password.setPassword("secret-password");
+        BatchUserUpdate duplicate = update(userIds.get(3));
+        duplicate.setLastName("Twice");
+        BatchUserUpdate afterRejected = update(userIds.get(5));
+        afterRejected.setFirstName("Sneaked");
+
+        List<BatchUserUpdate> updates = List.of(takenUsername, firstClaim, secondClaim, rename, unchanged,
+                password, duplicate, update(MISSING_ID), afterRejected);
+        BatchResult result = userBatchService.updateUsers(updates);
+
+        assertThat(result.results().stream().map(BatchItemResult::userId).toList())
+                .isEqualTo(updates.stream().map(BatchUserUpdate::getUserId).toList());
+        assertThat(result.results().stream().map(BatchItemResult::status).toList()).containsExactly(
+                Status.CONFLICT, Status.UPDATED, Status.CONFLICT, Status.UPDATED, Status.UNCHANGED,
+                Status.INVALID, Status.INVALID, Status.NOT_FOUND, Status.INVALID);
+        assertThat(jdbcTemplate.queryForObject("SELECT first_name FROM users WHERE id = ?", String.class,
+                userIds.get(5))).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT last_name FROM users WHERE id = ?", String.class,
+                userIds.get(3))).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class,
+                userIds.get(1))).isEqualTo("shared@example.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT first_name FROM users WHERE id = ?", String.class,
+                userIds.get(3))).isEqualTo("Renamed");
+        assertThat(jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class,
+                userIds.get(0))).isEqualTo("batch-user-0");
+    }
+
+    @Test
+    void deleteUsersTakesTheirAddressesAlong() {
+        jdbcTemplate.update("INSERT INTO user_addresses (user_id, address_line1, city, state, postal_code, country) " +
+                "VALUES (?, 'Main St', 'Springfield', 'IL', '62701', 'US')", userIds.get(1));
+
+        BatchResult result = userBatchService.deleteUsers(List.of(userIds.get(0), userIds.get(1), MISSING_ID,
+                userIds.get(6)));
+
+        assertThat(result.results().stream().map(BatchItemResult::status).toList()).containsExactly(
+                Status.DELETED, Status.DELETED, Status.NOT_FOUND, Status.DELETED);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users", Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM user_addresses", Integer.class)).isZero();
+    }
+
+    private static BatchUserUpdate update(Long userId) {
+        BatchUserUpdate update = new BatchUserUpdate();
+        update.setUserId(userId);
+        return update;
+    }
+}
@@ -0,0 +1,147 @@
+package com.authservice.service;
+
+import com.authservice.repository.UserImportRowRepository.StagedRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsCsvColumnsByHeaderName() {
+        List<StagedRow> rows = read(UserImportService.Format.CSV, """
+                role,email,username,last_name,first_name,phone
+                admin,alice@example.com,alice,Smith,Alice,555-0100
+                ,bob@example.com,bob,Jones,Bob,
+                """, 100);
+
+        assertThat(rows).containsExactly(
+                new StagedRow(1, "alice", "alice@example.com", "Alice", "Smith", "555-0100", "ADMIN", null),
+                new StagedRow(2, "bob", "bob@example.com", "Bob", "Jones", null, "USER", null));
+    }
+
+    @Test
+    void csvQuotedFieldsMayContainCommasQuotesAndLineBreaks() {
+        List<StagedRow> rows = read(UserImportService.Format.CSV,
+                "username,email,first_name,last_name\r\n" +
+                "carol,carol@example.com,\"Carol, Jr.\",\"O\"\"Neil\r\nSecond\"\r\n", 100);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).firstName()).isEqualTo("Carol, Jr.");
+        assertThat(rows.get(0).lastName()).isEqualTo("O\"Neil\r\nSecond");
+        assertThat(rows.get(0).error()).isNull();
+    }
+
+    @Test
+    void csvExportHeaderIsAccepted() {
+        List<StagedRow> rows = read(UserImportService.Format.CSV, """
+                id,username,email,first_name,last_name,phone,role,created_at
+                1,dave,dave@example.com,Dave,Brown,,USER,2024-01-01T00:00:00
+                """, 100);
+
+        assertThat(rows).containsExactly(
+                new StagedRow(1, "dave", "dave@example.com", "Dave", "Brown", null, "USER", null));
+    }
+
+    @Test
+    void blankLinesAreSkippedAndNotNumbered() {
+        List<StagedRow> csv = read(UserImportService.Format.CSV, """
+                username,email,first_name,last_name
+
+                erin,erin@example.com,Erin,White
+
+                frank,frank@example.com,Frank,Black
+                """, 100);
+        List<StagedRow> ndjson = read(UserImportService.Format.NDJSON, """
+
+                {"username":"erin","email":"erin@example.com","firstName":"Erin","lastName":"White"}
+
+                {"username":"frank","email":"frank@example.com","firstName":"Frank","lastName":"Black"}
+                """, 100);
+
+        assertThat(csv.stream().map(StagedRow::lineNo).toList()).containsExactly(1L, 2L);
+        assertThat(ndjson.stream().map(StagedRow::lineNo).toList()).containsExactly(1L, 2L);
+        assertThat(ndjson).isEqualTo(csv);
+    }
+
+    @Test
+    void invalidRowsAreReturnedWithTheirError() {
+        List<StagedRow> rows = read(UserImportService.Format.CSV, """
+                username,email,first_name,last_name,role
+                al,al@example.com,Al,Short,
+                has space,space@example.com,Has,Space,
+                grace,not-an-email,Grace,Hopper,
+                heidi,heidi@example.com,,Klum,
+                ivan,ivan@example.com,Ivan,Petrov,ROOT
+                judy,judy@example.com,Judy,Hopps,
+                """, 100);
+
+        assertThat(rows.stream().map(StagedRow::error).toList()).containsExactly(
+                "Username must be between 3 and 50 characters",
+                "Username must not contain whitespace",
+                "Email must be valid",
+                "First name and last name are required",
+                "Role must be USER or ADMIN",
+                null);
+    }
+
+    @Test
+    void malformedNdjsonLinesAreReportedAndReadingContinues() {
+        List<StagedRow> rows = read(UserImportService.Format.NDJSON, """
+                {"username":"kate","email":
+                ["not", "an", "object"]
+                {"username":"leo","email":"leo@example.com","firstName":"Leo","lastName":"King","role":"admin"}
+                """, 100);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).error()).startsWith("Malformed JSON");
+        assertThat(rows.get(1).error()).isEqualTo("Expected a JSON object");
+        assertThat(rows.get(2)).isEqualTo(
+                new StagedRow(3, "leo", "leo@example.com", "Leo", "King", null, "ADMIN", null));
+    }
+
+    @Test
+    void structurallyBrokenCsvIsRejected() {
+        assertThatThrownBy(() -> read(UserImportService.Format.CSV, "", 100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("empty");
+        assertThatThrownBy(() -> read(UserImportService.Format.CSV, "username,first_name\nmia,Mia\n", 100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("username and email");
+        assertThatThrownBy(() -> read(UserImportService.Format.CSV,
+                "username,email\nmia,\"mia@example.com\n", 100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unterminated");
+    }
+
+    @Test
+    void uploadsOverTheRowLimitAreRejected() {
+        String csv = """
+                username,email,first_name,last_name
+                nina,nina@example.com,Nina,Simone
+                otto,otto@example.com,Otto,Mann
+                """;
+
+        assertThat(read(UserImportService.Format.CSV, csv, 2)).hasSize(2);
+        assertThatThrownBy(() -> read(UserImportService.Format.CSV, csv, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximum of 1 rows");
+    }
+
+    private List<StagedRow> read(UserImportService.Format format, String body, long maxRows) {
+        UserImportReader reader = new UserImportReader(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, objectMapper, maxRows);
+        List<StagedRow> rows = new ArrayList<>();
+        reader.forEachRemaining(rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,93 @@
+package com.authservice.service;
+
+import com.authservice.dto.UserSortOrder;
+import com.authservice.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserPageCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 9, 14, 5, 7, 123_456_000);
+
+    @Test
+    void createdAtCursorsRoundTrip() {
+        for (UserSortOrder sort : new UserSortOrder[]{UserSortOrder.CREATED_AT, UserSortOrder.CREATED_AT_DESC}) {
+            UserPageCursor cursor = new UserPageCursor(sort, CREATED_AT, 42L, null);
+
+            UserPageCursor decoded = UserPageCursor.decode(cursor.encode(), sort);
+
+            assertThat(decoded).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void usernameCursorsRoundTrip() {
+        for (UserSortOrder sort : new UserSortOrder[]{UserSortOrder.USERNAME, UserSortOrder.USERNAME_DESC}) {
+            UserPageCursor cursor = new UserPageCursor(sort, null, null, "zoë+admin/ops");
+
+            UserPageCursor decoded = UserPageCursor.decode(cursor.encode(), sort);
+
+            assertThat(decoded).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void cursorAfterTheLastRowCarriesItsSortKey() {
+        User last = new User();
+        last.setId(7L);
+        last.setUsername("carol");
+        last.setCreatedAt(CREATED_AT);
+
+        UserPageCursor byCreatedAt = UserPageCursor.decode(
+                UserPageCursor.after(UserSortOrder.CREATED_AT, last).encode(), UserSortOrder.CREATED_AT);
+        UserPageCursor byUsername = UserPageCursor.decode(
+                UserPageCursor.after(UserSortOrder.USERNAME, last).encode(), UserSortOrder.USERNAME);
+
+        assertThat(byCreatedAt.createdAt()).isEqualTo(CREATED_AT);
+        assertThat(byCreatedAt.id()).isEqualTo(7L);
+        assertThat(byUsername.username()).isEqualTo("carol");
+    }
+
+    @Test
+    void encodedCursorsAreUrlSafe() {
+        String encoded = new UserPageCursor(UserSortOrder.USERNAME, null, null, "???>>>~~~").encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void cursorForAnotherSortIsRejected() {
+        String encoded = new UserPageCursor(UserSortOrder.CREATED_AT, CREATED_AT, 1L, null).encode();
+
+        assertThatThrownBy(() -> UserPageCursor.decode(encoded, UserSortOrder.CREATED_AT_DESC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different sort order");
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String[] malformed = {
+                "not base64!",
+                raw("BOGUS\nalice"),
+                raw("CREATED_AT\nyesterday\n1"),
+                raw("CREATED_AT\n2024-03-09T14:05:07\nnot-a-number"),
+                raw("CREATED_AT\n2024-03-09T14:05:07"),
+                raw("USERNAME")
+        };
+        for (String cursor : malformed) {
+            assertThatThrownBy(() -> UserPageCursor.decode(cursor, UserSortOrder.CREATED_AT))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid cursor");
+        }
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
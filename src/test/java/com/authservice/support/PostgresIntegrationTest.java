@@ -0,0 +1,30 @@
+package com.authservice.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * Base for tests against a real Postgres initialised with database/01-init.sql, since the
+ * triggers, exclusion constraints and pg_trgm indexes the services rely on exist only there.
+ * Cognito is replaced by the in-process emulator. Skipped where Docker is not available.
+ *
+ * Each test class gets its own container, so the application context is not reused across classes.
+ */
+@SpringBootTest
+@ActiveProfiles("cognito-emulator")
+@Testcontainers(disabledWithoutDocker = true)
+@DirtiesContext
+public abstract class PostgresIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16")
+            .withCopyFileToContainer(MountableFile.forHostPath("database/01-init.sql"),
+                    "/docker-entrypoint-initdb.d/01-init.sql");
+}